@@ -0,0 +1,79 @@
+package me.coley.recaf.plugin.rename.bench;
+
+import me.coley.recaf.plugin.rename.analysis.BayesWrapper;
+import me.coley.recaf.plugin.rename.analysis.ClassDataCollector;
+import me.coley.recaf.plugin.rename.analysis.NaiveBayesScorer;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.tribuo.Example;
+import org.tribuo.classification.Label;
+import org.tribuo.impl.ArrayExample;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Predicts the classification of every class of a corpus from pre-extracted features.
+ * Compares the flat {@link NaiveBayesScorer} against predictions of the Tribuo model,
+ * and measures the batch {@link BayesWrapper#analyzeAll(double[][])} used by the intelligent strategy.
+ *
+ * @author Matt Coley
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BayesWrapperBenchmark {
+	private static final double THRESHOLD = 0.3;
+	@Param({"1000", "10000", "100000"})
+	public int classCount;
+	private double[][] features;
+	private List<Example<Label>> examples;
+	private NaiveBayesScorer scorer;
+
+	@Setup
+	public void setup() throws Exception {
+		BayesWrapper.init();
+		scorer = NaiveBayesScorer.fromModel(BayesWrapper.getModel());
+		List<ClassNode> nodes = CorpusGenerator.toNodes(
+				new CorpusGenerator(classCount, CorpusGenerator.DEFAULT_SEED).generate(), ClassReader.SKIP_FRAMES);
+		features = new double[nodes.size()][];
+		examples = new ArrayList<>(nodes.size());
+		for (int i = 0; i < features.length; i++) {
+			features[i] = BayesWrapper.createClassFeatures(nodes.get(i), null);
+			examples.add(new ArrayExample<>(null, ClassDataCollector.LABELS, features[i]));
+		}
+	}
+
+	@Benchmark
+	public void scorer(Blackhole bh) {
+		for (double[] row : features)
+			bh.consume(scorer.classify(THRESHOLD, row));
+	}
+
+	@Benchmark
+	public void tribuo(Blackhole bh) {
+		for (Example<Label> example : examples)
+			bh.consume(BayesWrapper.getPredictedClassification(THRESHOLD, example));
+	}
+
+	@Benchmark
+	public void analyzeAll(Blackhole bh) {
+		bh.consume(BayesWrapper.analyzeAll(features));
+	}
+}
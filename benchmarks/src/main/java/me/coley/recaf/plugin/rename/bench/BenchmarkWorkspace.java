@@ -0,0 +1,55 @@
+package me.coley.recaf.plugin.rename.bench;
+
+import me.coley.recaf.control.Controller;
+import me.coley.recaf.control.headless.HeadlessController;
+import me.coley.recaf.workspace.JarResource;
+import me.coley.recaf.workspace.Workspace;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Headless Recaf workspace over a generated corpus, written to a temporary jar.
+ *
+ * @author Matt Coley
+ */
+public class BenchmarkWorkspace implements AutoCloseable {
+	private final Controller controller;
+	private final Path jar;
+
+	private BenchmarkWorkspace(Controller controller, Path jar) {
+		this.controller = controller;
+		this.jar = jar;
+	}
+
+	/**
+	 * @param classes
+	 * 		Classes to put in the primary resource of the workspace.
+	 *
+	 * @return Workspace holding the classes.
+	 *
+	 * @throws IOException
+	 * 		When the temporary jar cannot be written or read.
+	 */
+	public static BenchmarkWorkspace create(Map<String, byte[]> classes) throws IOException {
+		Path jar = Files.createTempFile("auto-renamer-corpus", ".jar");
+		CorpusGenerator.writeJar(classes, jar);
+		Controller controller = new HeadlessController(null, null);
+		controller.setWorkspace(new Workspace(new JarResource(jar.toFile())));
+		return new BenchmarkWorkspace(controller, jar);
+	}
+
+	/**
+	 * @return Controller of the workspace.
+	 */
+	public Controller getController() {
+		return controller;
+	}
+
+	@Override
+	public void close() throws IOException {
+		Files.deleteIfExists(jar);
+	}
+}
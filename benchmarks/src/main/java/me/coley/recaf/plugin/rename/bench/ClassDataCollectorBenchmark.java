@@ -0,0 +1,66 @@
+package me.coley.recaf.plugin.rename.bench;
+
+import me.coley.recaf.plugin.rename.analysis.BayesWrapper;
+import me.coley.recaf.plugin.rename.analysis.ClassDataCollector;
+import me.coley.recaf.plugin.rename.analysis.PackageTrie;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extracts the classification features of every class of a corpus.
+ * Compares walking the class tree directly against the original visitor, which allocated a {@link Type}
+ * for every type reference, see {@link LegacyClassDataCollector}.
+ *
+ * @author Matt Coley
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ClassDataCollectorBenchmark {
+	@Param({"1000", "10000", "100000"})
+	public int classCount;
+	private List<ClassNode> nodes;
+	private PackageTrie packageLookup;
+
+	@Setup
+	public void setup() throws Exception {
+		BayesWrapper.init();
+		packageLookup = BayesWrapper.getPackageLookup();
+		nodes = CorpusGenerator.toNodes(
+				new CorpusGenerator(classCount, CorpusGenerator.DEFAULT_SEED).generate(), ClassReader.SKIP_FRAMES);
+	}
+
+	@Benchmark
+	public void collect(Blackhole bh) {
+		for (ClassNode node : nodes)
+			bh.consume(ClassDataCollector.collect(node, packageLookup, null).getFeatures());
+	}
+
+	@Benchmark
+	public void visitor(Blackhole bh) {
+		for (ClassNode node : nodes) {
+			LegacyClassDataCollector collector = new LegacyClassDataCollector(packageLookup);
+			node.accept(collector);
+			bh.consume(collector.getFeatures());
+		}
+	}
+}
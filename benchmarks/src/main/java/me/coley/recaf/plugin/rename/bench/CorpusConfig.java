@@ -0,0 +1,71 @@
+package me.coley.recaf.plugin.rename.bench;
+
+/**
+ * Shape of a corpus created by the {@link CorpusGenerator}.
+ *
+ * @author Matt Coley
+ */
+public class CorpusConfig {
+	/**
+	 * Total number of classes, including interfaces.
+	 */
+	public int classCount = 1000;
+	/**
+	 * Random seed. The same config always yields the same corpus.
+	 */
+	public long seed = CorpusGenerator.DEFAULT_SEED;
+	/**
+	 * Maximum number of corpus classes above a class in its hierarchy.
+	 */
+	public int hierarchyDepth = 4;
+	/**
+	 * Maximum number of corpus interfaces a class implements. Interfaces are only generated when above zero.
+	 */
+	public int interfaceFanOut;
+	/**
+	 * Style of generated class and member names.
+	 */
+	public NameStyle nameStyle = NameStyle.SHORT;
+	/**
+	 * Fraction of fields, between {@code 0} and {@code 1}, that get a getter and setter.
+	 */
+	public double accessorDensity;
+	/**
+	 * Reference types of the packages listed in the plugin's {@code packages.csv}, rather than a fixed set of
+	 * common JDK types. This spreads references over every classification the model knows.
+	 */
+	public boolean packageReferences;
+
+	/**
+	 * @param classCount
+	 * 		Total number of classes.
+	 *
+	 * @return Config of the given size, with the remaining values at their defaults.
+	 */
+	public static CorpusConfig ofSize(int classCount) {
+		CorpusConfig config = new CorpusConfig();
+		config.classCount = classCount;
+		return config;
+	}
+
+	@Override
+	public String toString() {
+		return "classes=" + classCount + ", seed=" + seed + ", depth=" + hierarchyDepth +
+				", fan-out=" + interfaceFanOut + ", names=" + nameStyle + ", accessors=" + accessorDensity +
+				", package-references=" + packageReferences;
+	}
+
+	/**
+	 * Styles of generated names.
+	 */
+	public enum NameStyle {
+		/**
+		 * Short names, such as {@code a, b, ... aa, ab}.
+		 */
+		SHORT,
+		/**
+		 * Names a Java compiler would reject, such as keywords and names with whitespace.
+		 */
+		ILLEGAL
+	}
+}
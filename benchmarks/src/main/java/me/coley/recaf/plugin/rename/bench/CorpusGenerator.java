@@ -0,0 +1,392 @@
+package me.coley.recaf.plugin.rename.bench;
+
+import me.coley.recaf.plugin.rename.analysis.ResourceLoader;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Generates a synthetic corpus of classes that look like the output of a name obfuscator.
+ * Classes have obfuscated names, extend each other or common library types, implement each other's interfaces,
+ * and reference library types in their fields and method bodies. The shape of the corpus is controlled by
+ * a {@link CorpusConfig}, and the same config always yields the same corpus.
+ *
+ * @author Matt Coley
+ */
+public class CorpusGenerator implements Opcodes {
+	/**
+	 * Seed used by benchmarks, so results stay comparable across runs.
+	 */
+	public static final long DEFAULT_SEED = 0x5EED;
+	private static final int CLASSES_PER_PACKAGE = 200;
+	private static final int CLASSES_PER_INTERFACE = 10;
+	private static final int INTERFACE_NAME_OFFSET = 100;
+	private static final String[] LIBRARY_TYPES = {
+			"java/io/File", "java/io/InputStream", "java/io/OutputStream", "java/net/Socket", "java/net/URL",
+			"javax/swing/JFrame", "javax/swing/JPanel", "java/awt/Color", "java/security/MessageDigest",
+			"javax/crypto/Cipher", "java/sql/Connection", "java/sql/ResultSet", "java/lang/Thread",
+			"java/util/ArrayList", "java/util/HashMap", "java/lang/StringBuilder"
+	};
+	private static final String[] LIBRARY_PARENTS = {
+			"java/lang/Object", "java/lang/Thread", "java/io/OutputStream", "javax/swing/JPanel", "java/util/AbstractList"
+	};
+	private static final String[] KEYWORDS = {
+			"if", "do", "for", "int", "new", "try", "case", "else", "goto", "this", "void", "class", "final",
+			"while", "throw", "static", "public", "return", "switch", "native"
+	};
+	private static String[] packageTypes;
+	private final List<GeneratedClass> parents = new ArrayList<>();
+	private final List<GeneratedClass> interfaces = new ArrayList<>();
+	private final CorpusConfig config;
+	private final String[] libraryTypes;
+	private final Random random;
+
+	/**
+	 * @param classCount
+	 * 		Number of classes to generate.
+	 * @param seed
+	 * 		Random seed.
+	 */
+	public CorpusGenerator(int classCount, long seed) {
+		this(withSeed(CorpusConfig.ofSize(classCount), seed));
+	}
+
+	/**
+	 * @param config
+	 * 		Shape of the corpus.
+	 */
+	public CorpusGenerator(CorpusConfig config) {
+		this.config = config;
+		this.libraryTypes = config.packageReferences ? getPackageTypes() : LIBRARY_TYPES;
+		this.random = new Random(config.seed);
+	}
+
+	/**
+	 * @return Generated classes by internal name. Parents and interfaces are ordered before the classes using them.
+	 */
+	public Map<String, byte[]> generate() {
+		parents.clear();
+		interfaces.clear();
+		random.setSeed(config.seed);
+		Map<String, byte[]> classes = new LinkedHashMap<>();
+		int classCount = config.classCount;
+		int packageCount = Math.max(1, classCount / CLASSES_PER_PACKAGE);
+		int interfaceCount = config.interfaceFanOut > 0 ?
+				Math.min(classCount, Math.max(1, classCount / CLASSES_PER_INTERFACE)) : 0;
+		for (int i = 0; i < classCount; i++) {
+			String name = name(i % packageCount) + "/" + name(i);
+			classes.put(name, i < interfaceCount ? generateInterface(name) : generateClass(name));
+		}
+		return classes;
+	}
+
+	private byte[] generateInterface(String name) {
+		GeneratedClass current = new GeneratedClass(name, null);
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC | ACC_ABSTRACT | ACC_INTERFACE, name, null, "java/lang/Object", null);
+		int methodCount = 1 + random.nextInt(2);
+		for (int i = 0; i < methodCount; i++) {
+			// Offset names so they do not overlap the implementing class's own members
+			String methodName = name(INTERFACE_NAME_OFFSET + interfaces.size() * 2 + i);
+			cw.visitMethod(ACC_PUBLIC | ACC_ABSTRACT, methodName, "()V", null, null).visitEnd();
+			current.methods.add(methodName);
+		}
+		cw.visitEnd();
+		interfaces.add(current);
+		return cw.toByteArray();
+	}
+
+	private byte[] generateClass(String name) {
+		// Half of the classes extend an earlier class of the corpus
+		GeneratedClass parent = null;
+		String superName;
+		if (!parents.isEmpty() && random.nextBoolean()) {
+			parent = parents.get(random.nextInt(parents.size()));
+			superName = parent.name;
+		} else {
+			superName = LIBRARY_PARENTS[random.nextInt(LIBRARY_PARENTS.length)];
+		}
+		GeneratedClass current = new GeneratedClass(name, parent);
+		int interfaceCount = interfaces.isEmpty() ? 0 : random.nextInt(config.interfaceFanOut + 1);
+		Set<GeneratedClass> implemented = new LinkedHashSet<>();
+		for (int i = 0; i < interfaceCount; i++)
+			implemented.add(interfaces.get(random.nextInt(interfaces.size())));
+		String[] itfNames = implemented.stream().map(itf -> itf.name).toArray(String[]::new);
+		current.interfaces.addAll(implemented);
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC | ACC_SUPER, name, null, superName, itfNames);
+		cw.visitSource(name(random.nextInt(config.classCount)) + ".java", null);
+		// Fields
+		int memberIndex = 0;
+		int fieldCount = random.nextInt(5);
+		for (int i = 0; i < fieldCount; i++) {
+			String desc = random.nextBoolean() ? "I" : "L" + randomLibraryType() + ";";
+			String fieldName = name(memberIndex++);
+			cw.visitField(ACC_PRIVATE, fieldName, desc, null, null).visitEnd();
+			current.fields.add(new String[]{fieldName, desc});
+		}
+		// Constructor
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, superName, "<init>", "()V", false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		// Accessors
+		for (String[] field : current.fields) {
+			if (random.nextDouble() >= config.accessorDensity)
+				continue;
+			generateGetter(cw, current, field, name(memberIndex++));
+			generateSetter(cw, current, field, name(memberIndex++));
+		}
+		// Implementations of interface methods, then methods of the class itself.
+		// Method names follow the field names, so obfuscated member names overlap as they tend to.
+		Set<String> methodNames = new LinkedHashSet<>();
+		for (GeneratedClass itf : implemented)
+			methodNames.addAll(itf.methods);
+		int methodCount = 1 + random.nextInt(5);
+		for (int i = 0; i < methodCount; i++)
+			methodNames.add(name(memberIndex++));
+		for (String methodName : methodNames) {
+			mv = cw.visitMethod(ACC_PUBLIC, methodName, "()V", null, null);
+			mv.visitCode();
+			generateBody(mv, current);
+			mv.visitInsn(RETURN);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+			current.methods.add(methodName);
+		}
+		cw.visitEnd();
+		if (current.depth < config.hierarchyDepth)
+			parents.add(current);
+		return cw.toByteArray();
+	}
+
+	private void generateGetter(ClassWriter cw, GeneratedClass current, String[] field, String methodName) {
+		Type type = Type.getType(field[1]);
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, methodName, "()" + field[1], null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, current.name, field[0], field[1]);
+		mv.visitInsn(type.getOpcode(IRETURN));
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+
+	private void generateSetter(ClassWriter cw, GeneratedClass current, String[] field, String methodName) {
+		Type type = Type.getType(field[1]);
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, methodName, "(" + field[1] + ")V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(type.getOpcode(ILOAD), 1);
+		mv.visitFieldInsn(PUTFIELD, current.name, field[0], field[1]);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+
+	private void generateBody(MethodVisitor mv, GeneratedClass current) {
+		int ops = 1 + random.nextInt(8);
+		for (int i = 0; i < ops; i++) {
+			switch (random.nextInt(5)) {
+				case 0: {
+					// Type reference
+					mv.visitInsn(ACONST_NULL);
+					mv.visitTypeInsn(CHECKCAST, randomLibraryType());
+					mv.visitInsn(POP);
+					break;
+				}
+				case 1: {
+					// Library call
+					mv.visitInsn(ACONST_NULL);
+					mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Object", "hashCode", "()I", false);
+					mv.visitInsn(POP);
+					mv.visitInsn(ACONST_NULL);
+					mv.visitTypeInsn(CHECKCAST, randomLibraryType());
+					mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Object", "toString", "()Ljava/lang/String;", false);
+					mv.visitInsn(POP);
+					break;
+				}
+				case 2: {
+					// Call to a method of the class, or one of its parents
+					GeneratedClass target = current;
+					while (target.parent != null && random.nextBoolean())
+						target = target.parent;
+					if (target.methods.isEmpty())
+						break;
+					mv.visitVarInsn(ALOAD, 0);
+					String method = target.methods.get(random.nextInt(target.methods.size()));
+					mv.visitMethodInsn(INVOKEVIRTUAL, current.name, method, "()V", false);
+					break;
+				}
+				case 3: {
+					// Call through an implemented interface
+					if (current.interfaces.isEmpty())
+						break;
+					GeneratedClass itf = current.interfaces.get(random.nextInt(current.interfaces.size()));
+					mv.visitVarInsn(ALOAD, 0);
+					String method = itf.methods.get(random.nextInt(itf.methods.size()));
+					mv.visitMethodInsn(INVOKEINTERFACE, itf.name, method, "()V", true);
+					break;
+				}
+				default: {
+					// Field read
+					if (current.fields.isEmpty())
+						break;
+					String[] field = current.fields.get(random.nextInt(current.fields.size()));
+					mv.visitVarInsn(ALOAD, 0);
+					mv.visitFieldInsn(GETFIELD, current.name, field[0], field[1]);
+					mv.visitInsn(POP);
+					break;
+				}
+			}
+		}
+	}
+
+	private String randomLibraryType() {
+		return libraryTypes[random.nextInt(libraryTypes.length)];
+	}
+
+	/**
+	 * @param index
+	 * 		Index of the name.
+	 *
+	 * @return Name in the configured {@link CorpusConfig.NameStyle style}.
+	 */
+	private String name(int index) {
+		switch (config.nameStyle) {
+			case ILLEGAL:
+				return illegalName(index);
+			case SHORT:
+			default:
+				return shortName(index);
+		}
+	}
+
+	/**
+	 * @param index
+	 * 		Index of the name.
+	 *
+	 * @return Name in the style of obfuscators, {@code a, b, ... z, aa, ab, ...}.
+	 */
+	public static String shortName(int index) {
+		StringBuilder sb = new StringBuilder();
+		do {
+			sb.insert(0, (char) ('a' + index % 26));
+			index = index / 26 - 1;
+		} while (index >= 0);
+		return sb.toString();
+	}
+
+	/**
+	 * @param index
+	 * 		Index of the name.
+	 *
+	 * @return Name that is valid in bytecode but not in source, starting with reserved keywords
+	 * and followed by short names ending in whitespace.
+	 */
+	public static String illegalName(int index) {
+		if (index < KEYWORDS.length)
+			return KEYWORDS[index];
+		return shortName(index - KEYWORDS.length) + ' ';
+	}
+
+	/**
+	 * @return One type per package listed in the plugin's {@code packages.csv}.
+	 */
+	private static synchronized String[] getPackageTypes() {
+		if (packageTypes == null) {
+			List<String> types = new ArrayList<>();
+			try {
+				ResourceLoader.forEachLine("/packages.csv", line -> {
+					String pkg = line.substring(0, line.indexOf(','));
+					String simpleName = pkg.substring(pkg.lastIndexOf('/') + 1);
+					types.add(pkg + "/" + Character.toUpperCase(simpleName.charAt(0)) + simpleName.substring(1));
+				});
+			} catch (IOException ex) {
+				throw new IllegalStateException("Failed to read package list", ex);
+			}
+			packageTypes = types.toArray(new String[0]);
+		}
+		return packageTypes;
+	}
+
+	private static CorpusConfig withSeed(CorpusConfig config, long seed) {
+		config.seed = seed;
+		return config;
+	}
+
+	/**
+	 * @param classes
+	 * 		Generated classes.
+	 * @param flags
+	 * 		{@link ClassReader} parsing flags.
+	 *
+	 * @return Parsed classes, in the same order.
+	 */
+	public static List<ClassNode> toNodes(Map<String, byte[]> classes, int flags) {
+		List<ClassNode> nodes = new ArrayList<>(classes.size());
+		for (byte[] code : classes.values()) {
+			ClassNode node = new ClassNode();
+			new ClassReader(code).accept(node, flags);
+			nodes.add(node);
+		}
+		return nodes;
+	}
+
+	/**
+	 * @param classes
+	 * 		Generated classes.
+	 * @param path
+	 * 		Jar file to write to.
+	 *
+	 * @throws IOException
+	 * 		When the jar cannot be written to.
+	 */
+	public static void writeJar(Map<String, byte[]> classes, Path path) throws IOException {
+		try (OutputStream out = Files.newOutputStream(path);
+			 JarOutputStream jar = new JarOutputStream(out)) {
+			for (Map.Entry<String, byte[]> e : classes.entrySet()) {
+				jar.putNextEntry(new JarEntry(e.getKey() + ".class"));
+				jar.write(e.getValue());
+				jar.closeEntry();
+			}
+		}
+	}
+
+	/**
+	 * Members of a generated class, for references from later classes.
+	 */
+	private static class GeneratedClass {
+		private final List<String[]> fields = new ArrayList<>();
+		private final List<String> methods = new ArrayList<>();
+		private final List<GeneratedClass> interfaces = new ArrayList<>();
+		private final GeneratedClass parent;
+		private final String name;
+		private final int depth;
+
+		private GeneratedClass(String name, GeneratedClass parent) {
+			this.name = name;
+			this.parent = parent;
+			this.depth = parent == null ? 0 : parent.depth + 1;
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package me.coley.recaf.plugin.rename.bench;
+
+import me.coley.recaf.control.Controller;
+import me.coley.recaf.plugin.rename.ClassRegistry;
+import me.coley.recaf.plugin.rename.namegen.AbstractNameStrategy;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.LocalVariableNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registers class, field and method mappings through the de-duplication of {@link AbstractNameStrategy}.
+ * The requested names are either unique, or all the same so every request after the first collides.
+ *
+ * @author Matt Coley
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DedupBenchmark {
+	@Param({"1000", "10000"})
+	public int classCount;
+	@Param({"false", "true"})
+	public boolean collide;
+	private BenchmarkWorkspace workspace;
+	private ClassRegistry registry;
+	private List<ClassNode> nodes;
+
+	@Setup
+	public void setup() throws Exception {
+		Map<String, byte[]> classes = new CorpusGenerator(classCount, CorpusGenerator.DEFAULT_SEED).generate();
+		workspace = BenchmarkWorkspace.create(classes);
+		registry = new ClassRegistry(workspace.getController());
+		nodes = new ArrayList<>(classes.size());
+		for (String name : classes.keySet())
+			nodes.add(registry.register(name));
+	}
+
+	@TearDown
+	public void teardown() throws Exception {
+		workspace.close();
+	}
+
+	@Benchmark
+	public void classMappings(Blackhole bh) {
+		DedupStrategy strategy = createStrategy();
+		int i = 0;
+		for (ClassNode node : nodes)
+			bh.consume(strategy.addClass(node.name, collide ? "Class" : "Class" + i++));
+	}
+
+	@Benchmark
+	public void fieldMappings(Blackhole bh) {
+		DedupStrategy strategy = createStrategy();
+		int i = 0;
+		for (ClassNode node : nodes)
+			for (FieldNode field : node.fields)
+				bh.consume(strategy.addField(node, field, collide ? "field" : "field" + i++));
+	}
+
+	@Benchmark
+	public void methodMappings(Blackhole bh) {
+		DedupStrategy strategy = createStrategy();
+		int i = 0;
+		for (ClassNode node : nodes)
+			for (MethodNode method : node.methods)
+				if (method.name.charAt(0) != '<')
+					bh.consume(strategy.addMethod(node, method, collide ? "method" : "method" + i++));
+	}
+
+	private DedupStrategy createStrategy() {
+		DedupStrategy strategy = new DedupStrategy(workspace.getController(), registry);
+		strategy.prepare(Collections.emptyList(), name -> true);
+		return strategy;
+	}
+
+	/**
+	 * Strategy exposing the de-duplicating mapping methods of the base strategy.
+	 */
+	private static class DedupStrategy extends AbstractNameStrategy {
+		private DedupStrategy(Controller controller, ClassRegistry registry) {
+			super(controller, registry);
+		}
+
+		private String addClass(String key, String name) {
+			return addClassMapping(key, name);
+		}
+
+		private String addField(ClassNode owner, FieldNode field, String name) {
+			return addFieldMapping(owner, field, name);
+		}
+
+		private String addMethod(ClassNode owner, MethodNode method, String name) {
+			return addMethodMapping(owner, method, name);
+		}
+
+		@Override
+		public String className(ClassNode node) {
+			return null;
+		}
+
+		@Override
+		public String fieldName(ClassNode owner, FieldNode field) {
+			return null;
+		}
+
+		@Override
+		public String methodName(ClassNode owner, MethodNode method) {
+			return null;
+		}
+
+		@Override
+		public String variable(MethodNode method, LocalVariableNode local) {
+			return null;
+		}
+	}
+}
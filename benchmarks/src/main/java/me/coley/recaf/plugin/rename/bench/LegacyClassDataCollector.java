@@ -0,0 +1,99 @@
+package me.coley.recaf.plugin.rename.bench;
+
+import me.coley.recaf.Recaf;
+import me.coley.recaf.plugin.rename.analysis.ClassDataCollector;
+import me.coley.recaf.plugin.rename.analysis.Classification;
+import me.coley.recaf.plugin.rename.analysis.PackageTrie;
+import me.coley.recaf.util.AccessFlag;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+/**
+ * Copy of the feature extraction visitor before it was made allocation free, kept as the baseline of
+ * {@link ClassDataCollectorBenchmark}. Every type reference is wrapped in a {@link Type} and looked up
+ * by its internal name. Logging of uncategorized types is left out, so it does not skew the timings.
+ *
+ * @author Matt Coley
+ */
+public class LegacyClassDataCollector extends ClassVisitor {
+	private final double[] counts = new double[ClassDataCollector.LABELS.length];
+	private final PackageTrie packageLookup;
+
+	/**
+	 * @param packageLookup
+	 * 		Lookup of package classifications.
+	 */
+	public LegacyClassDataCollector(PackageTrie packageLookup) {
+		super(Recaf.ASM_VERSION);
+		this.packageLookup = packageLookup;
+	}
+
+	@Override
+	public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+		for (String itf : interfaces)
+			onTypeReference(Type.getObjectType(itf), 40);
+		if (superName != null)
+			onTypeReference(Type.getObjectType(superName), 50);
+	}
+
+	@Override
+	public FieldVisitor visitField(int acc, String name, String desc, String s, Object v) {
+		onTypeReference(Type.getType(desc), 5);
+		return null;
+	}
+
+	@Override
+	public MethodVisitor visitMethod(int acc, String name, String desc, String s, String[] e) {
+		if (AccessFlag.isNative(acc))
+			counts[Classification.NATIVE.ordinal()] += 15;
+		return new MethodDataCollector();
+	}
+
+	private void onTypeReference(Type type, double weight) {
+		if (type.getSort() < Type.OBJECT)
+			return;
+		Classification classification = packageLookup.lookup(type.getInternalName());
+		// Misc has no column in the features
+		if (classification != null && classification.ordinal() < counts.length)
+			counts[classification.ordinal()] += weight;
+	}
+
+	/**
+	 * @return Normalized label-counts.
+	 */
+	public double[] getFeatures() {
+		return ClassDataCollector.normalize(counts);
+	}
+
+	private class MethodDataCollector extends MethodVisitor {
+		private MethodDataCollector() {
+			super(Recaf.ASM_VERSION);
+		}
+
+		@Override
+		public void visitFieldInsn(int op, String owner, String name, String desc) {
+			onTypeReference(Type.getObjectType(owner), 1);
+		}
+
+		@Override
+		public void visitMethodInsn(int op, String owner, String name, String desc, boolean itf) {
+			onTypeReference(Type.getObjectType(owner), 1);
+		}
+
+		@Override
+		public void visitTypeInsn(int op, String type) {
+			// Array types are not given as internal names
+			if (type.charAt(0) == '[') {
+				Type arrType = Type.getType(type);
+				while (arrType.getSort() == Type.ARRAY)
+					arrType = arrType.getElementType();
+				if (arrType.getSort() != Type.OBJECT)
+					return;
+				type = arrType.getInternalName();
+			}
+			onTypeReference(Type.getObjectType(type), 1);
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package me.coley.recaf.plugin.rename.bench;
+
+import me.coley.recaf.control.Controller;
+import me.coley.recaf.plugin.rename.AutoRename;
+import me.coley.recaf.plugin.rename.ClassRegistry;
+import me.coley.recaf.plugin.rename.NameGenerator;
+import me.coley.recaf.plugin.rename.analysis.BayesWrapper;
+import me.coley.recaf.plugin.rename.namegen.NamingPattern;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates names for every class, field and method of a corpus with each {@link NamingPattern}.
+ * A new generator is used for each invocation, so names never come from the caches of a prior invocation.
+ *
+ * @author Matt Coley
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class NameGeneratorBenchmark {
+	@Param({"1000", "10000"})
+	public int classCount;
+	@Param({"SIMPLE", "SOURCE_FILE", "INTELLIGENT"})
+	public NamingPattern pattern;
+	private BenchmarkWorkspace workspace;
+	private List<String> names;
+	private AutoRename plugin;
+
+	@Setup
+	public void setup() throws Exception {
+		if (pattern == NamingPattern.INTELLIGENT)
+			BayesWrapper.init();
+		Map<String, byte[]> classes = new CorpusGenerator(classCount, CorpusGenerator.DEFAULT_SEED).generate();
+		workspace = BenchmarkWorkspace.create(classes);
+		names = new ArrayList<>(classes.keySet());
+		plugin = new AutoRename();
+		plugin.namingPattern = pattern;
+	}
+
+	@TearDown
+	public void teardown() throws Exception {
+		workspace.close();
+	}
+
+	@Benchmark
+	public void generateNames(Blackhole bh) {
+		Controller controller = workspace.getController();
+		ClassRegistry registry = new ClassRegistry(controller);
+		List<ClassNode> nodes = new ArrayList<>(names.size());
+		for (String name : names)
+			nodes.add(registry.register(name));
+		NameGenerator generator = new NameGenerator(controller, plugin, registry, null);
+		generator.prepare(nodes);
+		for (ClassNode node : nodes)
+			bh.consume(generator.createClassName(node));
+		for (ClassNode node : nodes)
+			for (FieldNode field : node.fields)
+				bh.consume(generator.createFieldName(node, field));
+		for (ClassNode node : nodes)
+			for (MethodNode method : node.methods)
+				bh.consume(generator.createMethodName(node, method));
+		generator.complete();
+	}
+}
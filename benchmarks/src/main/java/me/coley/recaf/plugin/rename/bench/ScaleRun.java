@@ -0,0 +1,152 @@
+package me.coley.recaf.plugin.rename.bench;
+
+import me.coley.recaf.plugin.rename.AutoRename;
+import me.coley.recaf.plugin.rename.Processor;
+import me.coley.recaf.plugin.rename.analysis.BayesWrapper;
+import me.coley.recaf.plugin.rename.namegen.NamingPattern;
+
+import java.io.BufferedWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the full analyze and apply pipeline of the {@link Processor} on generated jars of increasing size,
+ * recording the time of each step and the peak heap usage. Meant to reproduce scaling problems without
+ * needing the jar they were found in, and to compare results before and after a change.
+ * <br>
+ * Usage: {@code ScaleRun [--pattern=SIMPLE] [--out=results.csv] [class counts...]}.
+ * Class counts default to 1k, 10k and 100k. Use a separate JVM per run for comparable heap numbers.
+ *
+ * @author Matt Coley
+ */
+public class ScaleRun {
+	private static final int[] DEFAULT_SIZES = {1_000, 10_000, 100_000};
+	private static final long MB = 1024 * 1024;
+
+	/**
+	 * @param args
+	 * 		See class documentation.
+	 *
+	 * @throws Exception
+	 * 		When a corpus cannot be written or a run fails.
+	 */
+	public static void main(String[] args) throws Exception {
+		NamingPattern pattern = NamingPattern.SIMPLE;
+		Path out = null;
+		List<Integer> sizes = new ArrayList<>();
+		for (String arg : args) {
+			if (arg.startsWith("--pattern="))
+				pattern = NamingPattern.valueOf(arg.substring(10));
+			else if (arg.startsWith("--out="))
+				out = Paths.get(arg.substring(6));
+			else
+				sizes.add(Integer.parseInt(arg));
+		}
+		if (sizes.isEmpty())
+			for (int size : DEFAULT_SIZES)
+				sizes.add(size);
+		if (pattern == NamingPattern.INTELLIGENT)
+			BayesWrapper.init();
+		List<String> rows = new ArrayList<>();
+		rows.add("classes,pattern,generate_ms,analyze_ms,apply_ms,mappings,peak_heap_mb");
+		for (int size : sizes) {
+			String row = run(createConfig(size), pattern);
+			System.out.println(row);
+			rows.add(row);
+		}
+		if (out != null) {
+			try (BufferedWriter writer = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+				for (String row : rows) {
+					writer.write(row);
+					writer.newLine();
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param classCount
+	 * 		Number of classes.
+	 *
+	 * @return Corpus config exercising deeper hierarchies, interfaces, accessors and every package classification.
+	 */
+	private static CorpusConfig createConfig(int classCount) {
+		CorpusConfig config = CorpusConfig.ofSize(classCount);
+		config.hierarchyDepth = 6;
+		config.interfaceFanOut = 2;
+		config.accessorDensity = 0.3;
+		config.packageReferences = true;
+		return config;
+	}
+
+	/**
+	 * @param config
+	 * 		Corpus to generate.
+	 * @param pattern
+	 * 		Naming pattern to use.
+	 *
+	 * @return CSV row of results.
+	 *
+	 * @throws Exception
+	 * 		When the corpus cannot be written, or the processor did not apply the mappings.
+	 */
+	private static String run(CorpusConfig config, NamingPattern pattern) throws Exception {
+		System.gc();
+		resetPeakHeap();
+		long start = System.nanoTime();
+		Map<String, byte[]> classes = new CorpusGenerator(config).generate();
+		long generated = System.nanoTime();
+		try (BenchmarkWorkspace workspace = BenchmarkWorkspace.create(classes)) {
+			AutoRename plugin = new AutoRename();
+			plugin.namingPattern = pattern;
+			Processor processor = new Processor(workspace.getController(), plugin);
+			long analyzeStart = System.nanoTime();
+			processor.analyze(new LinkedHashSet<>(classes.keySet()));
+			long analyzed = System.nanoTime();
+			boolean success = processor.apply();
+			long applied = System.nanoTime();
+			plugin.getExecutionEngine().shutdown();
+			// Timings of a failed run would only measure how early it stopped
+			if (!success)
+				throw new IllegalStateException("Renaming " + config.classCount + " classes with pattern " +
+						pattern.name() + " did not complete, see the log for the failed phase");
+			return config.classCount + "," + pattern.name() + "," +
+					millis(start, generated) + "," +
+					millis(analyzeStart, analyzed) + "," +
+					millis(analyzed, applied) + "," +
+					processor.getMappingCount() + "," +
+					getPeakHeap() / MB;
+		}
+	}
+
+	private static long millis(long start, long end) {
+		return (end - start) / 1_000_000;
+	}
+
+	private static void resetPeakHeap() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			if (pool.getType() == MemoryType.HEAP)
+				pool.resetPeakUsage();
+	}
+
+	/**
+	 * @return Sum of the peak usage of each heap pool. Pools may peak at different times,
+	 * so this is an upper bound of the actual peak.
+	 */
+	private static long getPeakHeap() {
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			if (pool.getType() == MemoryType.HEAP)
+				peak += pool.getPeakUsage().getUsed();
+		return peak;
+	}
+}
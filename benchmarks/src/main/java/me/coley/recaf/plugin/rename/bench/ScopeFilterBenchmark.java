@@ -0,0 +1,81 @@
+package me.coley.recaf.plugin.rename.bench;
+
+import me.coley.recaf.plugin.rename.AutoRename;
+import me.coley.recaf.plugin.rename.namefilter.NamingScope;
+import me.coley.recaf.plugin.rename.namefilter.ScopeFilter;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matches every class, field and method name of a corpus against the filter of each {@link NamingScope}.
+ * The cold case uses a new filter per invocation, the warm case re-uses one filter so cached results are hit.
+ *
+ * @author Matt Coley
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ScopeFilterBenchmark {
+	@Param({"1000", "10000", "100000"})
+	public int classCount;
+	@Param({"ALL", "SHORT_NAMES", "ILLEGAL_NAMES"})
+	public NamingScope scope;
+	private List<String> names;
+	private AutoRename plugin;
+	private ScopeFilter warmFilter;
+
+	@Setup
+	public void setup() {
+		names = new ArrayList<>();
+		List<ClassNode> nodes = CorpusGenerator.toNodes(
+				new CorpusGenerator(classCount, CorpusGenerator.DEFAULT_SEED).generate(), ClassReader.SKIP_CODE);
+		for (ClassNode node : nodes) {
+			names.add(node.name);
+			for (FieldNode field : node.fields)
+				names.add(field.name);
+			for (MethodNode method : node.methods)
+				names.add(method.name);
+		}
+		plugin = new AutoRename();
+		warmFilter = scope.createFilter(plugin);
+		match(warmFilter);
+	}
+
+	@Benchmark
+	public int cold() {
+		return match(scope.createFilter(plugin));
+	}
+
+	@Benchmark
+	public int warm() {
+		return match(warmFilter);
+	}
+
+	private int match(ScopeFilter filter) {
+		int matches = 0;
+		for (String name : names)
+			if (filter.matches(name))
+				matches++;
+		return matches;
+	}
+}
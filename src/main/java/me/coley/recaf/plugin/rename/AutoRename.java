@@ -1,7 +1,16 @@
 package me.coley.recaf.plugin.rename;
 
 import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
 import javafx.scene.control.ContextMenu;
+import javafx.scene.control.TextArea;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
 import me.coley.recaf.config.Conf;
 import me.coley.recaf.config.FieldWrapper;
 import me.coley.recaf.control.Controller;
@@ -9,15 +18,25 @@ import me.coley.recaf.control.gui.GuiController;
 import me.coley.recaf.plugin.api.ConfigurablePlugin;
 import me.coley.recaf.plugin.api.ContextMenuInjectorPlugin;
 import me.coley.recaf.plugin.api.StartupPlugin;
+import me.coley.recaf.plugin.api.WorkspacePlugin;
+import me.coley.recaf.plugin.rename.mapping.MappingFormat;
+import me.coley.recaf.plugin.rename.metrics.RunMetrics;
 import me.coley.recaf.plugin.rename.namefilter.NamingScope;
 import me.coley.recaf.plugin.rename.namegen.NamingPattern;
 import me.coley.recaf.ui.ContextBuilder;
 import me.coley.recaf.ui.controls.ActionMenuItem;
 import me.coley.recaf.ui.controls.NumberSlider;
+import me.coley.recaf.util.Log;
 import me.coley.recaf.workspace.JavaResource;
+import me.coley.recaf.workspace.Workspace;
 import org.plugface.core.annotations.Plugin;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
@@ -31,7 +50,7 @@ import java.util.stream.Collectors;
  * @author Matt Coley
  */
 @Plugin(name = "Auto Renamer")
-public class AutoRename implements StartupPlugin, ContextMenuInjectorPlugin, ConfigurablePlugin {
+public class AutoRename implements StartupPlugin, WorkspacePlugin, ContextMenuInjectorPlugin, ConfigurablePlugin {
 	// Consts
 	public static final String FLAT_PACKAGE_NAME = "renamed/";
 	// Config keys
@@ -41,7 +60,18 @@ public class AutoRename implements StartupPlugin, ContextMenuInjectorPlugin, Con
 	private static final String SHORT_CUTOFF = "Short name cutoff";
 	private static final String PRUNE_DEBUG = "Remove debug info";
 	private static final String INTELLI_THRESH = "Intelligent guess (%) threshold";
+	private static final String THREAD_COUNT = "Worker threads";
+	private static final String INCREMENTAL = "Incremental renaming";
+	private static final String MAPPING_FORMAT = "Mapping format";
+	// Processors of prior runs, so that later runs only handle new classes and mappings can be exported.
+	// Processors refer to their resource through the controller's workspace, so weak keys would never be cleared.
+	// Instead, entries are released when their workspace is closed.
+	private final Map<JavaResource, Processor> sessions = new HashMap<>();
+	private final Map<JavaResource, ReferenceIndex> referenceIndexes = new HashMap<>();
 	private Controller controller;
+	private ExecutionEngine executionEngine;
+	// Only kept in memory, metrics are not config values and should not be persisted or edited
+	private volatile RunMetrics lastRunMetrics;
 
 	@Conf(value = NAME_PATTERN, noTranslate = true)
 	public NamingPattern namingPattern = NamingPattern.SIMPLE;
@@ -61,8 +91,14 @@ public class AutoRename implements StartupPlugin, ContextMenuInjectorPlugin, Con
 	@Conf(value = PRUNE_DEBUG, noTranslate = true)
 	public boolean pruneDebugInfo;
 
-	// TODO: Should this be a modifiable conf value, or just a reasonable const?
-	public int phaseTimeout = 10;
+	@Conf(value = THREAD_COUNT, noTranslate = true)
+	public long threadCount = Runtime.getRuntime().availableProcessors();
+
+	@Conf(value = INCREMENTAL, noTranslate = true)
+	public boolean incremental = true;
+
+	@Conf(value = MAPPING_FORMAT, noTranslate = true)
+	public MappingFormat mappingFormat = MappingFormat.TINY_V2;
 
 	@Override
 	public String getVersion() {
@@ -79,10 +115,47 @@ public class AutoRename implements StartupPlugin, ContextMenuInjectorPlugin, Con
 		this.controller = controller;
 	}
 
+	@Override
+	public void onOpened(Workspace workspace) {
+		// Sessions are created on the first run
+	}
+
+	@Override
+	public void onClosed(Workspace workspace) {
+		if (workspace == null)
+			return;
+		release(workspace.getPrimary());
+		for (JavaResource library : workspace.getLibraries())
+			release(library);
+	}
+
 	@Override
 	public void addFieldEditors(Map<String, Function<FieldWrapper, Node>> editors) {
+		// Sliders need the GUI, headless controllers keep the default editors
+		if (!(controller instanceof GuiController))
+			return;
 		editors.put(SHORT_CUTOFF, field -> new NumberSlider<Integer>((GuiController) controller, field, 1, 30, 1));
 		editors.put(INTELLI_THRESH, field -> new NumberSlider<Integer>((GuiController) controller, field, 10, 100, 5));
+		editors.put(THREAD_COUNT, field -> new NumberSlider<Integer>((GuiController) controller, field, 1, 64, 1));
+	}
+
+	private void showMetrics() {
+		Stage stage = new Stage();
+		stage.setTitle("Auto rename metrics");
+		stage.setScene(new Scene(createMetricsView(), 600, 400));
+		stage.show();
+	}
+
+	private Parent createMetricsView() {
+		TextArea text = new TextArea(getLastRunMetrics());
+		text.setEditable(false);
+		text.setPrefRowCount(12);
+		Button refresh = new Button("Refresh");
+		refresh.setOnAction(e -> text.setText(getLastRunMetrics()));
+		Button export = new Button("Export metrics");
+		export.setOnAction(e -> exportMetrics());
+		VBox.setVgrow(text, Priority.ALWAYS);
+		return new VBox(4, text, new HBox(4, refresh, export));
 	}
 
 	@Override
@@ -101,6 +174,11 @@ public class AutoRename implements StartupPlugin, ContextMenuInjectorPlugin, Con
 	public void forResourceRoot(ContextBuilder builder, ContextMenu menu, JavaResource resource) {
 		menu.getItems().add(new ActionMenuItem("Auto rename all",
 				() -> rename(".*", resource)));
+		menu.getItems().add(new ActionMenuItem("Export auto rename mappings",
+				() -> exportMappings(resource)));
+		menu.getItems().add(new ActionMenuItem("Import auto rename mappings",
+				() -> importMappings(resource)));
+		menu.getItems().add(new ActionMenuItem("Show auto rename metrics", this::showMetrics));
 	}
 
 	private void rename(String namePattern, JavaResource resource) {
@@ -111,9 +189,141 @@ public class AutoRename implements StartupPlugin, ContextMenuInjectorPlugin, Con
 	}
 
 	private void rename(Set<String> matchedNames, JavaResource resource) {
-		Processor processor = new Processor(controller, this);
+		Processor processor = getProcessor(resource);
 		processor.analyze(matchedNames);
 		processor.apply();
+		lastRunMetrics = processor.getMetrics();
+	}
+
+	private void exportMappings(JavaResource resource) {
+		Processor processor;
+		synchronized (this) {
+			processor = sessions.get(resource);
+		}
+		if (processor == null) {
+			Log.warn("No auto rename mappings to export, rename classes first");
+			return;
+		}
+		File file = createMappingChooser("Export mappings").showSaveDialog(null);
+		if (file == null)
+			return;
+		try {
+			int count = processor.exportMappings(file.toPath(), mappingFormat);
+			Log.info("Exported {} auto rename mappings to: {}", count, file);
+		} catch (IOException ex) {
+			Log.error(ex, "Failed to export auto rename mappings to: {}", file);
+		}
+	}
+
+	private void importMappings(JavaResource resource) {
+		File file = createMappingChooser("Import mappings").showOpenDialog(null);
+		if (file == null)
+			return;
+		try {
+			Processor processor = getProcessor(resource);
+			int count = processor.importMappings(file.toPath(), mappingFormat);
+			Log.info("Imported {} auto rename mappings from: {}", count, file);
+			processor.apply();
+			lastRunMetrics = processor.getMetrics();
+		} catch (IOException ex) {
+			Log.error(ex, "Failed to import auto rename mappings from: {}", file);
+		}
+	}
+
+	private void exportMetrics() {
+		String json = getLastRunMetrics();
+		if (json.isEmpty()) {
+			Log.warn("No auto rename metrics to export, rename classes first");
+			return;
+		}
+		FileChooser chooser = new FileChooser();
+		chooser.setTitle("Export metrics");
+		chooser.setInitialFileName("metrics.json");
+		chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("JSON", "*.json"));
+		File file = chooser.showSaveDialog(null);
+		if (file == null)
+			return;
+		try {
+			Files.write(file.toPath(), json.getBytes(StandardCharsets.UTF_8));
+			Log.info("Exported auto rename metrics to: {}", file);
+		} catch (IOException ex) {
+			Log.error(ex, "Failed to export auto rename metrics to: {}", file);
+		}
+	}
+
+	/**
+	 * @return Metrics of the last run in this session as JSON, or an empty string if nothing was renamed yet.
+	 */
+	private String getLastRunMetrics() {
+		RunMetrics metrics = lastRunMetrics;
+		return metrics == null ? "" : metrics.toJson();
+	}
+
+	private FileChooser createMappingChooser(String title) {
+		FileChooser chooser = new FileChooser();
+		chooser.setTitle(title);
+		chooser.setInitialFileName("mappings." + mappingFormat.getExtension());
+		chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(mappingFormat.toString(),
+				"*." + mappingFormat.getExtension()));
+		return chooser;
+	}
+
+	/**
+	 * @param resource
+	 * 		Resource to rename classes of.
+	 *
+	 * @return Processor of prior runs on the resource when {@link #incremental} is enabled and the naming config
+	 * has not changed. Otherwise a new processor. The processor is kept so the mappings of its last run can be exported.
+	 */
+	private synchronized Processor getProcessor(JavaResource resource) {
+		Processor processor = sessions.get(resource);
+		if (!incremental || processor == null || !processor.matchesConfig()) {
+			processor = new Processor(controller, this);
+			sessions.put(resource, processor);
+		}
+		return processor;
+	}
+
+	/**
+	 * @param resource
+	 * 		Resource to index.
+	 *
+	 * @return Reference index of the resource. The index is kept between runs, regardless of
+	 * {@link #incremental}, since it only needs to be updated for classes that changed.
+	 */
+	public synchronized ReferenceIndex getReferenceIndex(JavaResource resource) {
+		return referenceIndexes.computeIfAbsent(resource, r -> new ReferenceIndex());
+	}
+
+	/**
+	 * Drop the processor and reference index of a resource that is no longer used.
+	 *
+	 * @param resource
+	 * 		Resource to release.
+	 */
+	public synchronized void release(JavaResource resource) {
+		sessions.remove(resource);
+		referenceIndexes.remove(resource);
+	}
+
+	/**
+	 * @return Summary of config values that affect generated names.
+	 */
+	public String getNamingConfigKey() {
+		return namingPattern + ":" + namingScope + ":" + cutoffNameLen + ":" +
+				intelligentGuessThreshold + ":" + keepPackageLayout;
+	}
+
+	/**
+	 * @return Shared pool to run processing work on, sized to the current worker thread config.
+	 */
+	public synchronized ExecutionEngine getExecutionEngine() {
+		if (executionEngine == null) {
+			executionEngine = new ExecutionEngine((int) threadCount);
+		} else {
+			executionEngine.setParallelism((int) threadCount);
+		}
+		return executionEngine;
 	}
 
 	@Override
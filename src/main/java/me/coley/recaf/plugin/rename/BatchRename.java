@@ -0,0 +1,191 @@
+package me.coley.recaf.plugin.rename;
+
+import me.coley.recaf.control.Controller;
+import me.coley.recaf.control.headless.HeadlessController;
+import me.coley.recaf.plugin.rename.analysis.BayesWrapper;
+import me.coley.recaf.plugin.rename.mapping.MappingFormat;
+import me.coley.recaf.plugin.rename.namefilter.NamingScope;
+import me.coley.recaf.plugin.rename.namegen.NamingPattern;
+import me.coley.recaf.util.Log;
+import me.coley.recaf.workspace.JarResource;
+import me.coley.recaf.workspace.JavaResource;
+import me.coley.recaf.workspace.Workspace;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinTask;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Renames many jars without the GUI, each in its own headless Recaf workspace.
+ * Jars are renamed in parallel on the plugin's shared {@link ExecutionEngine}, which also runs the phases of each jar,
+ * and the intelligent naming pattern shares one trained {@link BayesWrapper} model between all jars.
+ * Each renamed jar is written to the output directory under its original file name, along with its mappings.
+ * <br>
+ * Usage: {@code BatchRename [--pattern=SIMPLE] [--scope=ALL] [--format=TINY_V2] [--threads=N] [--prune-debug]
+ * [--out=renamed] <jars...>}. The process exits with {@code 1} when any jar failed.
+ *
+ * @author Matt Coley
+ */
+public class BatchRename {
+	private final AutoRename plugin;
+	private final Path outputDirectory;
+
+	/**
+	 * @param plugin
+	 * 		Plugin instance with config to rename with.
+	 * @param outputDirectory
+	 * 		Directory to write renamed jars and their mappings to.
+	 */
+	public BatchRename(AutoRename plugin, Path outputDirectory) {
+		this.plugin = plugin;
+		this.outputDirectory = outputDirectory;
+	}
+
+	/**
+	 * @param args
+	 * 		See class documentation.
+	 *
+	 * @throws Exception
+	 * 		When the output directory cannot be created, or the naive bayes model cannot be trained.
+	 */
+	public static void main(String[] args) throws Exception {
+		AutoRename plugin = new AutoRename();
+		Path out = Paths.get("renamed");
+		List<Path> jars = new ArrayList<>();
+		for (String arg : args) {
+			if (arg.startsWith("--pattern="))
+				plugin.namingPattern = NamingPattern.valueOf(arg.substring(10));
+			else if (arg.startsWith("--scope="))
+				plugin.namingScope = NamingScope.valueOf(arg.substring(8));
+			else if (arg.startsWith("--format="))
+				plugin.mappingFormat = MappingFormat.valueOf(arg.substring(9));
+			else if (arg.startsWith("--threads="))
+				plugin.threadCount = Long.parseLong(arg.substring(10));
+			else if (arg.equals("--prune-debug"))
+				plugin.pruneDebugInfo = true;
+			else if (arg.startsWith("--out="))
+				out = Paths.get(arg.substring(6));
+			else
+				jars.add(Paths.get(arg));
+		}
+		if (jars.isEmpty()) {
+			System.err.println("Usage: BatchRename [--pattern=SIMPLE] [--scope=ALL] [--format=TINY_V2] " +
+					"[--threads=N] [--prune-debug] [--out=renamed] <jars...>");
+			System.exit(2);
+		}
+		// Train or load the model once up front, rather than in the first strategy that needs it
+		if (plugin.namingPattern == NamingPattern.INTELLIGENT)
+			BayesWrapper.init();
+		Files.createDirectories(out);
+		boolean success = new BatchRename(plugin, out).renameAll(jars);
+		plugin.getExecutionEngine().shutdown();
+		System.exit(success ? 0 : 1);
+	}
+
+	/**
+	 * @param jars
+	 * 		Jars to rename. File names must be unique, since outputs are written under the same name.
+	 *
+	 * @return {@code true} when all jars were renamed and written.
+	 */
+	public boolean renameAll(List<Path> jars) {
+		Set<Path> fileNames = new HashSet<>();
+		for (Path jar : jars) {
+			if (!fileNames.add(jar.getFileName())) {
+				Log.error("Cannot batch rename jars with the same file name: {}", jar.getFileName());
+				return false;
+			}
+		}
+		long start = System.currentTimeMillis();
+		// Joining a jar from the main thread blocks it, while jars joining their own phases on worker threads
+		// help run pending work of any jar, so the pool stays busy
+		List<ForkJoinTask<Boolean>> tasks = new ArrayList<>();
+		for (Path jar : jars)
+			tasks.add(plugin.getExecutionEngine().getPool().submit(() -> rename(jar)));
+		int failed = 0;
+		for (ForkJoinTask<Boolean> task : tasks)
+			if (!task.join())
+				failed++;
+		Log.info("AutoRename batch: Renamed {} of {} jars in {}ms",
+				jars.size() - failed, jars.size(), System.currentTimeMillis() - start);
+		return failed == 0;
+	}
+
+	/**
+	 * @param jar
+	 * 		Jar to rename.
+	 *
+	 * @return {@code true} when the jar was renamed and written.
+	 */
+	public boolean rename(Path jar) {
+		JavaResource primary = null;
+		try {
+			Controller controller = new HeadlessController(null, null);
+			controller.setWorkspace(new Workspace(new JarResource(jar.toFile())));
+			primary = controller.getWorkspace().getPrimary();
+			Processor processor = new Processor(controller, plugin);
+			processor.analyze(new HashSet<>(primary.getClasses().keySet()));
+			if (!processor.apply()) {
+				Log.error("AutoRename batch: Failed to rename jar: {}", jar);
+				return false;
+			}
+			String fileName = jar.getFileName().toString();
+			String baseName = fileName.endsWith(".jar") ? fileName.substring(0, fileName.length() - 4) : fileName;
+			Path output = outputDirectory.resolve(fileName);
+			Path mappingFile = outputDirectory.resolve(baseName + "." + plugin.mappingFormat.getExtension());
+			writeJar(primary, output);
+			int count = processor.exportMappings(mappingFile, plugin.mappingFormat);
+			Log.info("AutoRename batch: Wrote {} with {} mappings", output, count);
+			return true;
+		} catch (Throwable t) {
+			Log.error(t, "AutoRename batch: Failed to rename jar: {}", jar);
+			return false;
+		} finally {
+			// Jars are not closed through the plugin manager, so their reference indexes are dropped here
+			if (primary != null)
+				plugin.release(primary);
+		}
+	}
+
+	/**
+	 * @param resource
+	 * 		Resource to write.
+	 * @param path
+	 * 		Jar file to write to.
+	 *
+	 * @throws IOException
+	 * 		When the jar cannot be written.
+	 */
+	private static void writeJar(JavaResource resource, Path path) throws IOException {
+		Map<String, byte[]> files = new TreeMap<>(resource.getFiles());
+		Map<String, byte[]> classes = new TreeMap<>(resource.getClasses());
+		try (OutputStream os = Files.newOutputStream(path); JarOutputStream jos = new JarOutputStream(os)) {
+			// The manifest must be the first entry to be found by jar readers
+			byte[] manifest = files.remove(JarFile.MANIFEST_NAME);
+			if (manifest != null)
+				writeEntry(jos, JarFile.MANIFEST_NAME, manifest);
+			for (Map.Entry<String, byte[]> file : files.entrySet())
+				writeEntry(jos, file.getKey(), file.getValue());
+			for (Map.Entry<String, byte[]> clazz : classes.entrySet())
+				writeEntry(jos, clazz.getKey() + ".class", clazz.getValue());
+		}
+	}
+
+	private static void writeEntry(JarOutputStream jos, String name, byte[] value) throws IOException {
+		jos.putNextEntry(new JarEntry(name));
+		jos.write(value);
+		jos.closeEntry();
+	}
+}
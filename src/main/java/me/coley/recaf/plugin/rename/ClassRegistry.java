@@ -0,0 +1,230 @@
+package me.coley.recaf.plugin.rename;
+
+import me.coley.recaf.control.Controller;
+import me.coley.recaf.util.ClassUtil;
+import me.coley.recaf.util.Log;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of parsed classes for a single processing run.
+ * Classes matched for renaming are parsed once in full by the {@link Processor}.
+ * Any other class that gets looked up <i>(parents, library types, etc)</i> is parsed
+ * once with {@link ClassReader#SKIP_CODE} and kept as a lightweight view.
+ *
+ * @author Matt Coley
+ */
+public class ClassRegistry {
+	private final Map<String, ClassNode> nodes = new ConcurrentHashMap<>();
+	private final Map<String, ClassNode> views = new ConcurrentHashMap<>();
+	private final Set<String> missing = Collections.newSetFromMap(new ConcurrentHashMap<>());
+	private final Map<String, List<String>> parents = new ConcurrentHashMap<>();
+	private final Map<String, List<String>> descendants = new ConcurrentHashMap<>();
+	// Direct children of classes, from the headers of every class in the primary resource
+	private volatile Map<String, List<String>> children;
+	// Not cleared between runs, since naming strategies keep names of prior runs keyed by symbol ids
+	private final SymbolTable symbols = new SymbolTable();
+	private final Controller controller;
+
+	/**
+	 * @param controller
+	 * 		Controller with workspace to pull classes from.
+	 */
+	public ClassRegistry(Controller controller) {
+		this.controller = controller;
+	}
+
+	/**
+	 * Remove all parsed classes.
+	 */
+	public void clear() {
+		nodes.clear();
+		views.clear();
+		missing.clear();
+		parents.clear();
+		descendants.clear();
+		children = null;
+	}
+
+	/**
+	 * @return Symbol table shared by the processor and its naming strategy.
+	 */
+	public SymbolTable getSymbols() {
+		return symbols;
+	}
+
+	/**
+	 * Parse the given class in full and register it as a matched class.
+	 *
+	 * @param name
+	 * 		Name of class to register.
+	 *
+	 * @return Parsed class, or {@code null} if the class could not be read from the workspace.
+	 */
+	public ClassNode register(String name) {
+		ClassReader cr = controller.getWorkspace().getClassReader(name);
+		if (cr == null) {
+			Log.warn("AutoRenamer failed to read class from workspace: " + name);
+			return null;
+		}
+		ClassNode node = ClassUtil.getNode(cr, ClassReader.SKIP_FRAMES);
+		nodes.put(name, node);
+		// Full node supersedes any view created before registration
+		views.remove(name);
+		return node;
+	}
+
+	/**
+	 * @return Classes registered via {@link #register(String)}.
+	 */
+	public Collection<ClassNode> getMatchedNodes() {
+		return nodes.values();
+	}
+
+	/**
+	 * @param name
+	 * 		Class name.
+	 *
+	 * @return {@code true} when the class was registered via {@link #register(String)}.
+	 */
+	public boolean isMatched(String name) {
+		return nodes.containsKey(name);
+	}
+
+	/**
+	 * @param name
+	 * 		Class name.
+	 *
+	 * @return {@code true} when the class belongs to the primary resource of the workspace.
+	 */
+	public boolean isPrimary(String name) {
+		return nodes.containsKey(name) || controller.getWorkspace().getPrimary().getClasses().containsKey(name);
+	}
+
+	/**
+	 * @param name
+	 * 		Class name.
+	 *
+	 * @return Full node if the class is matched, otherwise a view without method code.
+	 * {@code null} if the class does not exist in the workspace.
+	 */
+	public ClassNode getNode(String name) {
+		ClassNode node = nodes.get(name);
+		if (node != null)
+			return node;
+		node = views.get(name);
+		if (node != null || missing.contains(name))
+			return node;
+		ClassReader cr = controller.getWorkspace().getClassReader(name);
+		if (cr == null) {
+			missing.add(name);
+			return null;
+		}
+		node = ClassUtil.getNode(cr, ClassReader.SKIP_CODE);
+		ClassNode existing = views.putIfAbsent(name, node);
+		return existing == null ? node : existing;
+	}
+
+	/**
+	 * @param name
+	 * 		Class name.
+	 *
+	 * @return All parents of the class, including library types.
+	 */
+	public List<String> getParents(String name) {
+		List<String> cached = parents.get(name);
+		if (cached != null)
+			return cached;
+		Set<String> visited = new HashSet<>();
+		Deque<String> queue = new ArrayDeque<>();
+		queue.add(name);
+		while (!queue.isEmpty()) {
+			ClassNode node = getNode(queue.poll());
+			if (node == null)
+				continue;
+			if (node.superName != null && visited.add(node.superName))
+				queue.add(node.superName);
+			for (String itf : node.interfaces)
+				if (visited.add(itf))
+					queue.add(itf);
+		}
+		visited.remove(name);
+		cached = Collections.unmodifiableList(new ArrayList<>(visited));
+		parents.put(name, cached);
+		return cached;
+	}
+
+	/**
+	 * @param name
+	 * 		Class name.
+	 *
+	 * @return All classes of the primary resource that extend or implement the class, directly or not.
+	 * Library classes cannot extend primary classes, so they are never included.
+	 */
+	public List<String> getDescendants(String name) {
+		List<String> cached = descendants.get(name);
+		if (cached != null)
+			return cached;
+		Map<String, List<String>> index = getChildIndex();
+		Set<String> visited = new TreeSet<>();
+		Deque<String> queue = new ArrayDeque<>();
+		queue.add(name);
+		while (!queue.isEmpty()) {
+			for (String child : index.getOrDefault(queue.poll(), Collections.emptyList()))
+				if (visited.add(child))
+					queue.add(child);
+		}
+		visited.remove(name);
+		cached = Collections.unmodifiableList(new ArrayList<>(visited));
+		descendants.put(name, cached);
+		return cached;
+	}
+
+	/**
+	 * @return Direct children of each class, built on first use for the current run.
+	 */
+	private Map<String, List<String>> getChildIndex() {
+		Map<String, List<String>> index = children;
+		if (index == null) {
+			synchronized (this) {
+				index = children;
+				if (index == null)
+					children = index = buildChildIndex();
+			}
+		}
+		return index;
+	}
+
+	private Map<String, List<String>> buildChildIndex() {
+		Map<String, List<String>> index = new ConcurrentHashMap<>();
+		controller.getWorkspace().getPrimary().getClasses().entrySet().parallelStream().forEach(entry -> {
+			// Only the header is read, the rest of the class is not parsed
+			ClassReader cr;
+			try {
+				cr = new ClassReader(entry.getValue());
+			} catch (Exception ex) {
+				return;
+			}
+			List<String> directParents = new ArrayList<>();
+			if (cr.getSuperName() != null)
+				directParents.add(cr.getSuperName());
+			Collections.addAll(directParents, cr.getInterfaces());
+			for (String parent : directParents)
+				index.computeIfAbsent(parent, p -> Collections.synchronizedList(new ArrayList<>()))
+						.add(entry.getKey());
+		});
+		return index;
+	}
+}
@@ -0,0 +1,214 @@
+package me.coley.recaf.plugin.rename;
+
+import me.coley.recaf.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Long-lived work-stealing pool shared by all processing runs of the plugin.
+ * Work is split into batches so that large class lists do not create one task per class.
+ *
+ * @author Matt Coley
+ */
+public class ExecutionEngine {
+	private static final int BATCHES_PER_THREAD = 4;
+	private ForkJoinPool pool;
+	private int parallelism;
+
+	/**
+	 * @param parallelism
+	 * 		Number of worker threads.
+	 */
+	public ExecutionEngine(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	/**
+	 * @param parallelism
+	 * 		New number of worker threads. The pool is re-created on next use if the value differs.
+	 */
+	public synchronized void setParallelism(int parallelism) {
+		parallelism = Math.max(1, parallelism);
+		if (this.parallelism != parallelism) {
+			this.parallelism = parallelism;
+			shutdown();
+		}
+	}
+
+	/**
+	 * @return Number of worker threads.
+	 */
+	public synchronized int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * @return Pool to run work on.
+	 */
+	public synchronized ForkJoinPool getPool() {
+		if (pool == null || pool.isShutdown()) {
+			pool = new ForkJoinPool(parallelism);
+		}
+		return pool;
+	}
+
+	/**
+	 * Run an action inside the pool and wait for it to complete.
+	 * Parallel streams started by the action are split over the worker threads of the pool, rather than the common
+	 * pool, so they follow the configured number of threads.
+	 *
+	 * @param action
+	 * 		Action to run.
+	 */
+	public void execute(Runnable action) {
+		ForkJoinPool pool = getPool();
+		// Already inside the pool, submitting and joining would only add a hop
+		if (ForkJoinTask.getPool() == pool) {
+			action.run();
+			return;
+		}
+		pool.submit(action).join();
+	}
+
+	/**
+	 * Stop the worker threads. The pool is re-created on next use.
+	 */
+	public synchronized void shutdown() {
+		if (pool != null) {
+			pool.shutdown();
+			pool = null;
+		}
+	}
+
+	/**
+	 * Run a phase of work where each wave of items must complete before the next one starts.
+	 * The call returns once every item has been processed, or the phase was cancelled.
+	 *
+	 * @param progress
+	 * 		Progress tracker of the phase, can be used to cancel it.
+	 * @param waves
+	 * 		Waves of items to process.
+	 * @param multiThread
+	 * 		{@code false} to run all items one after another, on a single thread of the pool.
+	 * @param action
+	 * 		Action to run on each item.
+	 * @param <T>
+	 * 		Item type.
+	 *
+	 * @return {@code true} when all items were processed.
+	 * {@code false} when the phase was cancelled or failed.
+	 */
+	public <T> boolean run(PhaseProgress progress, List<? extends Collection<T>> waves, boolean multiThread,
+						   Consumer<T> action) {
+		return run(progress, waves, multiThread, action, null);
+	}
+
+	/**
+	 * Run a phase of work where each wave of items must complete before the next one starts.
+	 * The call returns once every item has been processed, or the phase was cancelled.
+	 *
+	 * @param progress
+	 * 		Progress tracker of the phase, can be used to cancel it.
+	 * @param waves
+	 * 		Waves of items to process.
+	 * @param multiThread
+	 * 		{@code false} to run all items one after another, on a single thread of the pool.
+	 * @param action
+	 * 		Action to run on each item.
+	 * @param waveAction
+	 * 		Action to run on the calling thread once all items of a wave were processed, before the next wave starts.
+	 * 		May be {@code null}.
+	 * @param <T>
+	 * 		Item type.
+	 *
+	 * @return {@code true} when all items were processed.
+	 * {@code false} when the phase was cancelled or failed.
+	 */
+	public <T> boolean run(PhaseProgress progress, List<? extends Collection<T>> waves, boolean multiThread,
+						   Consumer<T> action, Consumer<Collection<T>> waveAction) {
+		String phaseName = progress.getPhaseName();
+		try {
+			progress.start();
+			Log.info("AutoRename Processing: Task '{}' starting", phaseName);
+			for (Collection<T> wave : waves) {
+				if (progress.isCancelled())
+					break;
+				if (multiThread) {
+					runParallel(progress, wave, action);
+				} else {
+					execute(() -> runBatch(progress, wave, action));
+				}
+				if (waveAction != null && !progress.isCancelled())
+					waveAction.accept(wave);
+				Log.debug("AutoRename Processing: {}", progress);
+			}
+			progress.finish();
+			long elapsed = progress.getElapsedMillis();
+			int count = progress.getCompleted();
+			if (progress.isCancelled()) {
+				Log.warn("AutoRename Processing: Task '{}' cancelled after {}ms, {}", phaseName, elapsed, progress);
+				return false;
+			}
+			Log.info("AutoRename Processing: Task '{}' completed in {}ms, {} items ({} items/s)",
+					phaseName, elapsed, count, elapsed == 0 ? count : (count * 1000L / elapsed));
+			return true;
+		} catch (Throwable t) {
+			progress.finish();
+			Log.error(t, "Failed processor phase '{}', reason: {}", phaseName, t.getMessage());
+			return false;
+		}
+	}
+
+	private <T> void runParallel(PhaseProgress progress, Collection<T> items, Consumer<T> action) {
+		ForkJoinPool pool = getPool();
+		List<ForkJoinTask<?>> tasks = new ArrayList<>();
+		for (List<T> batch : split(items, pool.getParallelism() * BATCHES_PER_THREAD)) {
+			tasks.add(pool.submit(() -> runBatch(progress, batch, action)));
+		}
+		// Joining from a worker thread of the pool will help run pending batches rather than blocking
+		for (ForkJoinTask<?> task : tasks) {
+			task.join();
+		}
+	}
+
+	private static <T> void runBatch(PhaseProgress progress, Collection<T> batch, Consumer<T> action) {
+		for (T item : batch) {
+			if (progress.isCancelled())
+				return;
+			long start = System.nanoTime();
+			action.accept(item);
+			progress.increment(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * @param items
+	 * 		Items to split.
+	 * @param batchCount
+	 * 		Target number of batches.
+	 * @param <T>
+	 * 		Item type.
+	 *
+	 * @return Items split into batches of roughly equal size.
+	 */
+	private static <T> List<List<T>> split(Collection<T> items, int batchCount) {
+		int batchSize = Math.max(1, (items.size() + batchCount - 1) / batchCount);
+		List<List<T>> batches = new ArrayList<>();
+		List<T> batch = new ArrayList<>(batchSize);
+		for (T item : items) {
+			batch.add(item);
+			if (batch.size() == batchSize) {
+				batches.add(batch);
+				batch = new ArrayList<>(batchSize);
+			}
+		}
+		if (!batch.isEmpty())
+			batches.add(batch);
+		return batches;
+	}
+}
@@ -0,0 +1,101 @@
+package me.coley.recaf.plugin.rename;
+
+import me.coley.recaf.plugin.rename.mapping.MappingSource;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.LongFunction;
+
+/**
+ * View of a processor's mappings grouped by class, without copying them into string keyed maps.
+ * Packed member keys start with the owner's id, so sorting them puts the members of each class next to each other.
+ * Only the start of each class's range is indexed, and the string keys of a class are built when it is requested.
+ *
+ * @author Matt Coley
+ */
+public class GroupedMappings implements MappingSource {
+	private final Map<String, String> classMappings;
+	private final Members fields;
+	private final Members methods;
+	private final Collection<String> classNames;
+
+	/**
+	 * @param symbols
+	 * 		Symbol table the member keys were created with.
+	 * @param classMappings
+	 * 		Class name mappings.
+	 * @param fieldMappings
+	 * 		Field mappings, keyed by packed member keys.
+	 * @param methodMappings
+	 * 		Method mappings, keyed by packed member keys.
+	 */
+	public GroupedMappings(SymbolTable symbols, Map<String, String> classMappings,
+						   Map<Long, String> fieldMappings, Map<Long, String> methodMappings) {
+		this.classMappings = classMappings;
+		this.fields = new Members(symbols, fieldMappings, symbols::toFieldKey);
+		this.methods = new Members(symbols, methodMappings, symbols::toMethodKey);
+		TreeSet<String> names = new TreeSet<>(classMappings.keySet());
+		names.addAll(fields.starts.keySet());
+		names.addAll(methods.starts.keySet());
+		this.classNames = Collections.unmodifiableSet(names);
+	}
+
+	@Override
+	public Collection<String> getClassNames() {
+		return classNames;
+	}
+
+	@Override
+	public String getClassMapping(String name) {
+		return classMappings.get(name);
+	}
+
+	@Override
+	public SortedMap<String, String> getFieldMappings(String name) {
+		return fields.get(name);
+	}
+
+	@Override
+	public SortedMap<String, String> getMethodMappings(String name) {
+		return methods.get(name);
+	}
+
+	/**
+	 * Member mappings of one type, sorted by packed key.
+	 */
+	private static class Members {
+		private final Map<String, Integer> starts = new HashMap<>();
+		private final Map<Long, String> mappings;
+		private final LongFunction<String> keyBuilder;
+		private final long[] keys;
+
+		private Members(SymbolTable symbols, Map<Long, String> mappings, LongFunction<String> keyBuilder) {
+			this.mappings = mappings;
+			this.keyBuilder = keyBuilder;
+			keys = new long[mappings.size()];
+			int i = 0;
+			for (long key : mappings.keySet())
+				keys[i++] = key;
+			Arrays.sort(keys);
+			for (i = 0; i < keys.length; i++)
+				if (i == 0 || !SymbolTable.isSameOwner(keys[i - 1], keys[i]))
+					starts.put(symbols.getOwner(keys[i]), i);
+		}
+
+		private SortedMap<String, String> get(String owner) {
+			Integer start = starts.get(owner);
+			if (start == null)
+				return Collections.emptySortedMap();
+			SortedMap<String, String> result = new TreeMap<>();
+			for (int i = start; i < keys.length && SymbolTable.isSameOwner(keys[start], keys[i]); i++)
+				result.put(keyBuilder.apply(keys[i]), mappings.get(keys[i]));
+			return result;
+		}
+	}
+}
@@ -0,0 +1,189 @@
+package me.coley.recaf.plugin.rename;
+
+import org.objectweb.asm.tree.ClassNode;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Orders classes into waves by their position in the class hierarchy.
+ * Every wave only contains classes whose matched parents belong to earlier waves,
+ * so the classes of a single wave can be processed in parallel while parents are
+ * always handled before their children.
+ *
+ * @author Matt Coley
+ */
+public class HierarchyScheduler {
+	private static final Comparator<ClassNode> NAME_ORDER = Comparator.comparing(node -> node.name);
+	private final Map<String, Set<String>> parentCache = new HashMap<>();
+	private final ClassRegistry registry;
+
+	/**
+	 * @param registry
+	 * 		Registry to pull class hierarchy data from.
+	 */
+	public HierarchyScheduler(ClassRegistry registry) {
+		this.registry = registry;
+	}
+
+	/**
+	 * @param nodes
+	 * 		Classes to schedule.
+	 *
+	 * @return Waves of classes, where each class's matched parents are in prior waves.
+	 * Classes in each wave are sorted by name.
+	 */
+	public List<List<ClassNode>> computeWaves(Collection<ClassNode> nodes) {
+		Map<String, ClassNode> scheduled = new HashMap<>();
+		for (ClassNode node : nodes)
+			scheduled.put(node.name, node);
+		// Assign each class the length of the longest parent chain above it
+		Map<String, Integer> depths = new HashMap<>();
+		for (ClassNode node : nodes)
+			computeDepth(node.name, scheduled, depths, new HashSet<>());
+		List<List<ClassNode>> waves = new ArrayList<>();
+		for (ClassNode node : nodes) {
+			int depth = depths.get(node.name);
+			while (waves.size() <= depth)
+				waves.add(new ArrayList<>());
+			waves.get(depth).add(node);
+		}
+		for (List<ClassNode> wave : waves)
+			wave.sort(NAME_ORDER);
+		return waves;
+	}
+
+	/**
+	 * Group the classes of the given waves into hierarchy components. Two classes are in the same component when one
+	 * extends the other, or both are related through other classes of the primary resource.
+	 * Member names and method families never span two components, so components can be named in parallel,
+	 * while naming each one on a single thread yields the same names as a sequential run.
+	 * Library classes do not join components, since their members are never renamed.
+	 *
+	 * @param waves
+	 * 		Waves of classes, as computed by {@link #computeWaves(Collection)}.
+	 *
+	 * @return Components of classes. Classes of each component are in wave order, and by name within a wave.
+	 */
+	public List<List<ClassNode>> computeComponents(List<List<ClassNode>> waves) {
+		Map<String, String> roots = new HashMap<>();
+		for (List<ClassNode> wave : waves) {
+			for (ClassNode node : wave) {
+				for (String parent : registry.getParents(node.name))
+					if (registry.isPrimary(parent))
+						join(roots, node.name, parent);
+				// Descendants outside the scheduled classes may link this class to one of its co-parents
+				for (String child : registry.getDescendants(node.name))
+					join(roots, node.name, child);
+			}
+		}
+		Map<String, List<ClassNode>> components = new LinkedHashMap<>();
+		for (List<ClassNode> wave : waves)
+			for (ClassNode node : wave)
+				components.computeIfAbsent(find(roots, node.name), r -> new ArrayList<>()).add(node);
+		return new ArrayList<>(components.values());
+	}
+
+	private static void join(Map<String, String> roots, String a, String b) {
+		a = find(roots, a);
+		b = find(roots, b);
+		if (!a.equals(b))
+			roots.put(a, b);
+	}
+
+	private static String find(Map<String, String> roots, String name) {
+		String root = name;
+		String parent;
+		while ((parent = roots.get(root)) != null)
+			root = parent;
+		// Point the chain directly at its root, so later lookups are short
+		while (!name.equals(root)) {
+			parent = roots.get(name);
+			roots.put(name, root);
+			name = parent;
+		}
+		return root;
+	}
+
+	/**
+	 * @param name
+	 * 		Class to compute the depth of.
+	 * @param scheduled
+	 * 		Classes being scheduled.
+	 * @param depths
+	 * 		Computed depths of classes.
+	 * @param visiting
+	 * 		Classes in the current chain, used to break cycles in malformed hierarchies.
+	 *
+	 * @return Wave index of the class.
+	 */
+	private int computeDepth(String name, Map<String, ClassNode> scheduled,
+							 Map<String, Integer> depths, Set<String> visiting) {
+		Integer known = depths.get(name);
+		if (known != null)
+			return known;
+		int depth = 0;
+		if (visiting.add(name)) {
+			for (String parent : getScheduledParents(scheduled.get(name), scheduled)) {
+				depth = Math.max(depth, computeDepth(parent, scheduled, depths, visiting) + 1);
+			}
+			visiting.remove(name);
+		}
+		depths.put(name, depth);
+		return depth;
+	}
+
+	/**
+	 * @param node
+	 * 		Class to check.
+	 * @param scheduled
+	 * 		Classes being scheduled.
+	 *
+	 * @return Closest parents of the class that are also being scheduled.
+	 * Parents that are not scheduled are looked through, so their own parents are checked instead.
+	 */
+	private Set<String> getScheduledParents(ClassNode node, Map<String, ClassNode> scheduled) {
+		Set<String> parents = new LinkedHashSet<>();
+		Set<String> visited = new HashSet<>();
+		List<String> queue = new ArrayList<>(getDirectParents(node));
+		while (!queue.isEmpty()) {
+			String parent = queue.remove(queue.size() - 1);
+			if (!visited.add(parent))
+				continue;
+			if (scheduled.containsKey(parent)) {
+				parents.add(parent);
+			} else if (registry.isPrimary(parent)) {
+				// Library classes cannot extend classes of the primary resource, so only
+				// primary classes need to be looked through.
+				ClassNode parentNode = registry.getNode(parent);
+				if (parentNode != null)
+					queue.addAll(getDirectParents(parentNode));
+			}
+		}
+		return parents;
+	}
+
+	/**
+	 * @param node
+	 * 		Class to check.
+	 *
+	 * @return Direct super-class and interfaces of the class.
+	 */
+	private Set<String> getDirectParents(ClassNode node) {
+		return parentCache.computeIfAbsent(node.name, n -> {
+			Set<String> parents = new LinkedHashSet<>();
+			if (node.superName != null)
+				parents.add(node.superName);
+			parents.addAll(node.interfaces);
+			return parents;
+		});
+	}
+}
@@ -0,0 +1,245 @@
+package me.coley.recaf.plugin.rename;
+
+import me.coley.recaf.plugin.rename.mapping.MappingKeys;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.commons.ClassRemapper;
+import org.objectweb.asm.commons.Remapper;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Applies mappings to the bytecode of individual classes.
+ * Members are looked up in the whole hierarchy of the referenced owner as well, like the hierarchy checks of
+ * {@link me.coley.recaf.mapping.Mappings}. Parents are checked first, so references through child types
+ * are mapped the same as references to the declaring type. Then any other class connected to the owner by
+ * the classes of the primary resource is checked, so references through a parent or sibling type are mapped the
+ * same as references to a child that declares the mapped member. The lambda metafactory method names of
+ * {@code invokedynamic} call sites are mapped by the method they implement in the functional interface.
+ * <br>
+ * The applier only caches hierarchies after construction, so one instance can be used by multiple threads,
+ * as long as the given mappings are not modified while it is in use.
+ *
+ * @author Matt Coley
+ */
+public class MappingApplier {
+	private final Remapper remapper = new HierarchyRemapper();
+	// Classes with a mapping for each member name and descriptor, so hierarchies are only searched for mapped members
+	private final Map<String, List<String>> fieldOwners = new HashMap<>();
+	private final Map<String, List<String>> methodOwners = new HashMap<>();
+	private final Map<String, Set<String>> hierarchies = new ConcurrentHashMap<>();
+	private final Map<String, String> mappings;
+	private final ClassRegistry registry;
+	private final boolean checkFieldHierarchy;
+	private final boolean checkMethodHierarchy;
+	private final boolean clearDebugInfo;
+
+	/**
+	 * @param mappings
+	 * 		Mappings, with keys as described in {@link MappingKeys}.
+	 * @param registry
+	 * 		Registry to pull class hierarchy data from.
+	 * @param checkFieldHierarchy
+	 * 		Look up field mappings in the hierarchy of the referenced owner.
+	 * 		Equivalent to {@link me.coley.recaf.mapping.Mappings#setCheckFieldHierarchy(boolean)}.
+	 * @param checkMethodHierarchy
+	 * 		Look up method mappings in the hierarchy of the referenced owner.
+	 * 		Equivalent to {@link me.coley.recaf.mapping.Mappings#setCheckMethodHierarchy(boolean)}.
+	 * @param clearDebugInfo
+	 * 		Remove debug info from mapped classes.
+	 */
+	public MappingApplier(Map<String, String> mappings, ClassRegistry registry, boolean checkFieldHierarchy,
+						  boolean checkMethodHierarchy, boolean clearDebugInfo) {
+		this.mappings = mappings;
+		this.registry = registry;
+		this.checkFieldHierarchy = checkFieldHierarchy;
+		this.checkMethodHierarchy = checkMethodHierarchy;
+		this.clearDebugInfo = clearDebugInfo;
+		for (String key : mappings.keySet()) {
+			if (MappingKeys.isClass(key))
+				continue;
+			Map<String, List<String>> owners = MappingKeys.isField(key) ? fieldOwners : methodOwners;
+			owners.computeIfAbsent(memberKey(MappingKeys.getName(key), MappingKeys.getDesc(key)),
+					k -> new ArrayList<>()).add(MappingKeys.getOwner(key));
+		}
+		// Sorted so that the same mapping is picked when several classes of a hierarchy are mapped
+		fieldOwners.values().forEach(Collections::sort);
+		methodOwners.values().forEach(Collections::sort);
+	}
+
+	/**
+	 * @param name
+	 * 		Internal class name.
+	 *
+	 * @return Mapped class name, or the given name if it is not mapped.
+	 */
+	public String mapClassName(String name) {
+		return remapper.map(name);
+	}
+
+	/**
+	 * @param code
+	 * 		Class bytecode.
+	 *
+	 * @return Bytecode with the mappings applied.
+	 */
+	public byte[] apply(byte[] code) {
+		ClassReader reader = new ClassReader(code);
+		ClassWriter writer = new ClassWriter(0);
+		reader.accept(new ClassRemapper(writer, remapper), clearDebugInfo ? ClassReader.SKIP_DEBUG : 0);
+		return writer.toByteArray();
+	}
+
+	/**
+	 * @param owners
+	 * 		Classes with a mapping of the member.
+	 * @param owner
+	 * 		Class the member is referenced through.
+	 * @param name
+	 * 		Member name.
+	 * @param desc
+	 * 		Member descriptor.
+	 * @param keyFunction
+	 * 		Function creating the mapping key of the member in a given class.
+	 *
+	 * @return Mapped name from the first mapped class in the hierarchy of the owner,
+	 * or {@code null} if no class in the hierarchy maps the member.
+	 */
+	private String mapInHierarchy(Map<String, List<String>> owners, String owner, String name, String desc,
+								  Function<String, String> keyFunction) {
+		List<String> mappedOwners = owners.get(memberKey(name, desc));
+		if (mappedOwners == null)
+			return null;
+		for (String parent : registry.getParents(owner)) {
+			String mapped = mappings.get(keyFunction.apply(parent));
+			if (mapped != null)
+				return mapped;
+		}
+		Set<String> hierarchy = getHierarchy(owner);
+		for (String mappedOwner : mappedOwners)
+			if (hierarchy.contains(mappedOwner))
+				return mappings.get(keyFunction.apply(mappedOwner));
+		return null;
+	}
+
+	/**
+	 * @param name
+	 * 		Class name.
+	 *
+	 * @return All classes connected to the class through parents and children of the primary resource.
+	 * Library types do not connect classes, since they are the parents of most classes.
+	 */
+	private Set<String> getHierarchy(String name) {
+		Set<String> cached = hierarchies.get(name);
+		if (cached != null)
+			return cached;
+		Set<String> hierarchy = new HashSet<>();
+		Deque<String> queue = new ArrayDeque<>();
+		hierarchy.add(name);
+		queue.add(name);
+		while (!queue.isEmpty()) {
+			String current = queue.poll();
+			if (!current.equals(name) && !registry.isPrimary(current))
+				continue;
+			for (String parent : registry.getParents(current))
+				if (hierarchy.add(parent))
+					queue.add(parent);
+			for (String child : registry.getDescendants(current))
+				if (hierarchy.add(child))
+					queue.add(child);
+		}
+		// Every class of the hierarchy shares the same set, unless the class itself is a library type
+		for (String member : hierarchy)
+			if (member.equals(name) || registry.isPrimary(member))
+				hierarchies.putIfAbsent(member, hierarchy);
+		return hierarchy;
+	}
+
+	private static String memberKey(String name, String desc) {
+		return name + ' ' + desc;
+	}
+
+	/**
+	 * @param owner
+	 * 		Functional interface type.
+	 * @param name
+	 * 		Name of the implemented method.
+	 *
+	 * @return Descriptor of the abstract method of the interface, or any of its parents, with the given name.
+	 * {@code null} if no such method exists.
+	 */
+	private String findAbstractMethodDesc(String owner, String name) {
+		String desc = findAbstractMethodDesc(registry.getNode(owner), name);
+		if (desc != null)
+			return desc;
+		for (String parent : registry.getParents(owner)) {
+			desc = findAbstractMethodDesc(registry.getNode(parent), name);
+			if (desc != null)
+				return desc;
+		}
+		return null;
+	}
+
+	private static String findAbstractMethodDesc(ClassNode node, String name) {
+		if (node == null)
+			return null;
+		for (MethodNode method : node.methods)
+			if ((method.access & Opcodes.ACC_ABSTRACT) != 0 && method.name.equals(name))
+				return method.desc;
+		return null;
+	}
+
+	/**
+	 * Remapper reading from the mappings of the applier.
+	 */
+	private class HierarchyRemapper extends Remapper {
+		@Override
+		public String map(String internalName) {
+			return mappings.getOrDefault(internalName, internalName);
+		}
+
+		@Override
+		public String mapFieldName(String owner, String name, String descriptor) {
+			String mapped = mappings.get(MappingKeys.field(owner, name, descriptor));
+			if (mapped == null && checkFieldHierarchy)
+				mapped = mapInHierarchy(fieldOwners, owner, name, descriptor,
+						o -> MappingKeys.field(o, name, descriptor));
+			return mapped == null ? name : mapped;
+		}
+
+		@Override
+		public String mapMethodName(String owner, String name, String descriptor) {
+			if (name.charAt(0) == '<')
+				return name;
+			String mapped = mappings.get(MappingKeys.method(owner, name, descriptor));
+			if (mapped == null && checkMethodHierarchy)
+				mapped = mapInHierarchy(methodOwners, owner, name, descriptor,
+						o -> MappingKeys.method(o, name, descriptor));
+			return mapped == null ? name : mapped;
+		}
+
+		@Override
+		public String mapInvokeDynamicMethodName(String name, String descriptor) {
+			Type type = Type.getReturnType(descriptor);
+			if (type.getSort() != Type.OBJECT)
+				return name;
+			String owner = type.getInternalName();
+			String desc = findAbstractMethodDesc(owner, name);
+			return desc == null ? name : mapMethodName(owner, name, desc);
+		}
+	}
+}
@@ -1,6 +1,8 @@
 package me.coley.recaf.plugin.rename;
 
 import me.coley.recaf.control.Controller;
+import me.coley.recaf.plugin.rename.metrics.RunMetrics;
+import me.coley.recaf.plugin.rename.namefilter.AbstractScopeFilter;
 import me.coley.recaf.plugin.rename.namefilter.NamingScope;
 import me.coley.recaf.plugin.rename.namefilter.ScopeFilter;
 import me.coley.recaf.plugin.rename.namegen.NameStrategy;
@@ -10,6 +12,12 @@ import org.objectweb.asm.tree.FieldNode;
 import org.objectweb.asm.tree.LocalVariableNode;
 import org.objectweb.asm.tree.MethodNode;
 
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 /**
  * Name generator that delegates to the configured {@link NameStrategy} from the plugin's {@link NamingPattern} value.
  * Names that do not match the {@link ScopeFilter} from the plugin's {@link NamingScope} value.
@@ -26,12 +34,14 @@ public class NameGenerator {
 	 * 		Controller to pull classes from.
 	 * @param plugin
 	 * 		Plugin instance with config to pull.
+	 * @param registry
+	 * 		Registry of parsed classes to share with the naming strategy.
 	 * @param packageOverride
 	 * 		Package name to put classes into. Must be {@code null} to keep existing package structures.
 	 */
-	public NameGenerator(Controller controller, AutoRename plugin, String packageOverride) {
+	public NameGenerator(Controller controller, AutoRename plugin, ClassRegistry registry, String packageOverride) {
 		this.scopeFilter = plugin.namingScope.createFilter(plugin);
-		this.namingStrategy = plugin.namingPattern.createStrategy(controller, plugin);
+		this.namingStrategy = plugin.namingPattern.createStrategy(controller, plugin, registry);
 		this.packageOverride = packageOverride;
 	}
 
@@ -42,6 +52,47 @@ public class NameGenerator {
 		return namingStrategy.allowMultiThread();
 	}
 
+	/**
+	 * Prepare the naming strategy for the given classes.
+	 *
+	 * @param nodes
+	 * 		Classes that names will be created for.
+	 */
+	public void prepare(Collection<ClassNode> nodes) {
+		List<ClassNode> sorted = nodes.stream()
+				.filter(node -> !isSpecialClass(node.name))
+				.sorted(Comparator.comparing(node -> node.name))
+				.collect(Collectors.toList());
+		if (scopeFilter instanceof AbstractScopeFilter)
+			((AbstractScopeFilter) scopeFilter).getCacheStats().reset();
+		namingStrategy.prepare(sorted, scopeFilter);
+	}
+
+	/**
+	 * @param mappings
+	 * 		Mappings of a prior session to load into the naming strategy.
+	 */
+	public void seed(Map<String, String> mappings) {
+		namingStrategy.seed(mappings);
+	}
+
+	/**
+	 * Notify the naming strategy that the current run is over.
+	 */
+	public void complete() {
+		namingStrategy.complete();
+	}
+
+	/**
+	 * @param metrics
+	 * 		Metrics to add the cache and collision counts of the current run to.
+	 */
+	public void reportMetrics(RunMetrics metrics) {
+		namingStrategy.reportMetrics(metrics);
+		if (scopeFilter instanceof AbstractScopeFilter)
+			metrics.addCache("scopeFilterCache", ((AbstractScopeFilter) scopeFilter).getCacheStats());
+	}
+
 	/**
 	 * @param node
 	 * 		Class to rename.
@@ -49,17 +100,42 @@ public class NameGenerator {
 	 * @return New internal name, or {@code null} if the naming scope does not apply to the class.
 	 */
 	public String createClassName(ClassNode node) {
-		// Skip if the current name does not match the target scope.
+		String simpleName = proposeClassName(node);
+		return simpleName == null ? null : claimClassName(node, simpleName);
+	}
+
+	/**
+	 * @param node
+	 * 		Class to rename.
+	 *
+	 * @return Proposed simple name, or {@code null} if the naming scope does not apply to the class.
+	 * Must be passed to {@link #claimClassName(ClassNode, String)} to get the final name.
+	 */
+	public String proposeClassName(ClassNode node) {
+		// Skip special cases: 'module-info'/'package-info'
 		String currentName = node.name;
-		if (!scopeFilter.matches(currentName)) {
+		if (isSpecialClass(currentName)) {
 			return null;
 		}
-		// Create the new name for the class.
-		String simpleName = namingStrategy.className(node);
-		// Skip if the strategy failed to produce a name.
-		if (simpleName == null) {
+		// Skip if the current name does not match the target scope.
+		if (!scopeFilter.matches(currentName)) {
 			return null;
 		}
+		// Create the new name for the class.
+		return namingStrategy.className(node);
+	}
+
+	/**
+	 * @param node
+	 * 		Class to rename.
+	 * @param simpleName
+	 * 		Name proposed by {@link #proposeClassName(ClassNode)}.
+	 *
+	 * @return New internal name, de-duplicated against names claimed before.
+	 */
+	public String claimClassName(ClassNode node, String simpleName) {
+		String currentName = node.name;
+		simpleName = namingStrategy.claimClassName(node, simpleName);
 		// Put all renamed classes into the given package.
 		if (packageOverride != null) {
 			return packageOverride + simpleName;
@@ -102,6 +178,18 @@ public class NameGenerator {
 		return namingStrategy.methodName(owner, method);
 	}
 
+	/**
+	 * @param owner
+	 * 		Class defining the method.
+	 * @param method
+	 * 		Method that was renamed.
+	 *
+	 * @return Classes that declare the method and must be given its new name, including those outside the run.
+	 */
+	public Collection<String> getMethodOwners(ClassNode owner, MethodNode method) {
+		return namingStrategy.methodOwners(owner, method);
+	}
+
 	/**
 	 * @param declaring
 	 * 		Method declaring the variable.
@@ -116,4 +204,14 @@ public class NameGenerator {
 		}
 		return namingStrategy.variable(declaring, local);
 	}
+
+	/**
+	 * @param name
+	 * 		Class name.
+	 *
+	 * @return {@code true} for {@code module-info} and {@code package-info} classes.
+	 */
+	private static boolean isSpecialClass(String name) {
+		return name.matches("(?:[\\w\\/]+\\/)?(?:module|package)-info");
+	}
 }
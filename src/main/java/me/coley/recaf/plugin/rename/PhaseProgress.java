@@ -0,0 +1,113 @@
+package me.coley.recaf.plugin.rename;
+
+import me.coley.recaf.plugin.rename.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress of a single processing phase, along with its wall time and the latency of each item.
+ *
+ * @author Matt Coley
+ */
+public class PhaseProgress {
+	private final AtomicInteger completed = new AtomicInteger();
+	private final LatencyHistogram latencies = new LatencyHistogram();
+	private final String phaseName;
+	private final int total;
+	private volatile boolean cancelled;
+	private volatile long startTime;
+	private volatile long endTime;
+
+	/**
+	 * @param phaseName
+	 * 		Phase name.
+	 * @param total
+	 * 		Number of items in the phase.
+	 */
+	public PhaseProgress(String phaseName, int total) {
+		this.phaseName = phaseName;
+		this.total = total;
+	}
+
+	/**
+	 * Mark the phase as started.
+	 */
+	public void start() {
+		startTime = System.nanoTime();
+	}
+
+	/**
+	 * Mark the phase as finished, either by completing all items or being cancelled.
+	 */
+	public void finish() {
+		endTime = System.nanoTime();
+	}
+
+	/**
+	 * Mark an item as completed.
+	 *
+	 * @param latency
+	 * 		Time taken to process the item, in nanoseconds.
+	 */
+	public void increment(long latency) {
+		completed.incrementAndGet();
+		latencies.record(latency);
+	}
+
+	/**
+	 * Request the phase to stop. Items already being processed are allowed to finish.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * @return {@code true} when {@link #cancel()} has been called.
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * @return Phase name.
+	 */
+	public String getPhaseName() {
+		return phaseName;
+	}
+
+	/**
+	 * @return Number of processed items.
+	 */
+	public int getCompleted() {
+		return completed.get();
+	}
+
+	/**
+	 * @return Number of items in the phase.
+	 */
+	public int getTotal() {
+		return total;
+	}
+
+	/**
+	 * @return Wall time of the phase in milliseconds. If the phase has not finished, the time it has run so far.
+	 */
+	public long getElapsedMillis() {
+		if (startTime == 0)
+			return 0;
+		long end = endTime == 0 ? System.nanoTime() : endTime;
+		return (end - startTime) / 1_000_000;
+	}
+
+	/**
+	 * @return Latencies of processed items.
+	 */
+	public LatencyHistogram getLatencies() {
+		return latencies;
+	}
+
+	@Override
+	public String toString() {
+		return phaseName + ": " + getCompleted() + "/" + total;
+	}
+}
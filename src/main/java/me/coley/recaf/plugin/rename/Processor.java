@@ -1,25 +1,32 @@
 package me.coley.recaf.plugin.rename;
 
 import me.coley.recaf.control.Controller;
-import me.coley.recaf.mapping.Mappings;
-import me.coley.recaf.util.ClassUtil;
+import me.coley.recaf.plugin.rename.mapping.MappingFormat;
+import me.coley.recaf.plugin.rename.mapping.MappingKeys;
+import me.coley.recaf.plugin.rename.mapping.MappingReader;
+import me.coley.recaf.plugin.rename.mapping.MappingWriter;
+import me.coley.recaf.plugin.rename.metrics.RunMetrics;
 import me.coley.recaf.util.Log;
-import org.objectweb.asm.ClassReader;
+import me.coley.recaf.workspace.JavaResource;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.FieldNode;
 import org.objectweb.asm.tree.LocalVariableNode;
 import org.objectweb.asm.tree.MethodNode;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * Main handler for creating new names and applying them.
@@ -27,12 +34,28 @@ import java.util.function.Consumer;
  * @author Matt Coley
  */
 public class Processor {
-	private final Map<String, String> mappings = new ConcurrentHashMap<>();
+	private final Map<String, String> classMappings = new ConcurrentHashMap<>();
+	// Member mappings are keyed by packed keys of the symbol table, and only built as strings when emitted
+	private final Map<Long, String> fieldMappings = new ConcurrentHashMap<>();
+	private final Map<Long, String> methodMappings = new ConcurrentHashMap<>();
+	// Current names of classes handled by prior runs of this processor
+	private final Set<String> processed = Collections.newSetFromMap(new ConcurrentHashMap<>());
 	private final Controller controller;
 	private final AutoRename plugin;
+	private final ClassRegistry registry;
+	private final SymbolTable symbols;
 	private final NameGenerator generator;
+	private final String configKey;
+	private Collection<String> runClasses = Collections.emptySet();
+	private volatile PhaseProgress currentPhase;
+	private volatile RunMetrics metrics = new RunMetrics();
+	private volatile boolean cancelled;
+	private boolean analyzed;
 
 	/**
+	 * A processor can be re-used for multiple runs on the same workspace.
+	 * Classes handled by a prior run are skipped, and names assigned by prior runs stay reserved.
+	 *
 	 * @param controller
 	 * 		Controller with workspace to pull classes from.
 	 * @param plugin
@@ -41,90 +64,232 @@ public class Processor {
 	public Processor(Controller controller, AutoRename plugin) {
 		this.controller = controller;
 		this.plugin = plugin;
+		this.configKey = plugin.getNamingConfigKey();
+		this.registry = new ClassRegistry(controller);
+		this.symbols = registry.getSymbols();
 		// Configure name generator
 		String packageName = plugin.keepPackageLayout ? null : AutoRename.FLAT_PACKAGE_NAME;
-		generator = new NameGenerator(controller, plugin, packageName);
+		generator = new NameGenerator(controller, plugin, registry, packageName);
+	}
+
+	/**
+	 * @return {@code true} when the naming config of the plugin has not changed since the processor was created.
+	 * Otherwise the names of prior runs would not be consistent with new ones.
+	 */
+	public boolean matchesConfig() {
+		return configKey.equals(plugin.getNamingConfigKey());
 	}
 
 	/**
 	 * Analyze the given classes and create new names for them and their members.
+	 * Classes handled by prior runs are skipped.
 	 *
 	 * @param matchedNames
 	 * 		Set of class names to analyze.
 	 */
 	public void analyze(Set<String> matchedNames) {
-		// Reset mappings
-		mappings.clear();
+		// Reset mappings of the prior run and parsed classes, since the workspace may have changed since
+		clearMappings();
+		registry.clear();
+		metrics = new RunMetrics();
+		cancelled = false;
+		analyzed = false;
+		Set<String> delta = matchedNames.stream()
+				.filter(name -> !processed.contains(name))
+				.collect(Collectors.toSet());
+		if (delta.size() < matchedNames.size())
+			Log.info("AutoRename Processing: Skipping {} classes handled by prior runs",
+					matchedNames.size() - delta.size());
 		// Analyze each class in separate phases
 		// Phase 0: Prepare class nodes
-		Set<ClassNode> nodes = collectNodes(matchedNames);
+		Collection<ClassNode> nodes = collectNodes(delta);
+		if (nodes == null)
+			return;
+		runClasses = nodes.stream().map(node -> node.name).collect(Collectors.toList());
+		metrics.setClassCount(runClasses.size());
+		prepareGenerator(nodes);
+		analyzed = analyzeNames(nodes);
+		generator.complete();
+		generator.reportMetrics(metrics);
+		metrics.setMappingCounts(classMappings.size(), fieldMappings.size(), methodMappings.size());
+	}
+
+	/**
+	 * Prepare the naming strategy, recorded as a phase of a single item.
+	 *
+	 * @param nodes
+	 * 		Classes to create names for.
+	 */
+	private void prepareGenerator(Collection<ClassNode> nodes) {
+		PhaseProgress phase = new PhaseProgress("Prepare naming strategy", 1);
+		phase.start();
+		long start = System.nanoTime();
+		// Strategies classify and index the classes in parallel, which must stay within the configured threads
+		plugin.getExecutionEngine().execute(() -> generator.prepare(nodes));
+		phase.increment(System.nanoTime() - start);
+		phase.finish();
+		metrics.addPhase(phase);
+	}
+
+	/**
+	 * @param nodes
+	 * 		Classes to create names for.
+	 *
+	 * @return {@code true} when all naming phases completed.
+	 */
+	private boolean analyzeNames(Collection<ClassNode> nodes) {
 		// Phase 1: Create mappings for class names
 		//  - following phases can use these names to enrich their naming logic
-		pooled("Analyze: Class names", service -> {
-			for (ClassNode node : nodes) {
-				service.submit(() -> analyzeClass(node));
-			}
-		});
+		//  - parents are named in earlier waves than their children, so children can use parent names
+		//  - names of a wave are proposed in parallel, then claimed from one index in name order once the wave is done.
+		//    Which class gets a suffix for a taken name is then the same on every run.
+		HierarchyScheduler scheduler = new HierarchyScheduler(registry);
+		List<List<ClassNode>> waves = scheduler.computeWaves(nodes);
+		Map<ClassNode, String> proposed = new ConcurrentHashMap<>();
+		if (!runPhase("Analyze: Class names", waves, generator.allowMultiThread(),
+				node -> proposeClass(node, proposed), wave -> claimClasses(wave, proposed)))
+			return false;
 		// Phase 2: Create mappings for field names
 		//  - methods can now use class and field names to enrich their naming logic
-		pooled("Analyze: Field names", service -> {
-			for (ClassNode node : nodes) {
-				service.submit(() -> analyzeFields(node));
-			}
-		});
+		//  - member names are unique per hierarchy, so each hierarchy is named on one thread, parents first.
+		//    Which member claims a name first is then fixed, and the names do not depend on thread timing.
+		List<List<ClassNode>> components = scheduler.computeComponents(waves);
+		if (!runPhase("Analyze: Field names", Collections.singletonList(components), forEachClass(this::analyzeFields)))
+			return false;
 		// Phase 3: Create mappings for method names
-		pooled("Analyze: Method names", service -> {
-			for (ClassNode node : nodes) {
-				service.submit(() -> analyzeMethods(node));
+		return runPhase("Analyze: Method names", Collections.singletonList(components),
+				forEachClass(this::analyzeMethods));
+	}
+
+	/**
+	 * @param action
+	 * 		Action to run on a class.
+	 *
+	 * @return Action to run on each class of a hierarchy component, in order.
+	 */
+	private Consumer<List<ClassNode>> forEachClass(Consumer<ClassNode> action) {
+		return component -> {
+			for (ClassNode node : component) {
+				// Components can be large, so cancellation is also checked between their classes
+				if (cancelled)
+					return;
+				action.accept(node);
 			}
-		});
+		};
+	}
+
+	/**
+	 * Stop the current analysis. Phases that have not started yet will be skipped,
+	 * and {@link #apply()} will not apply the partial results.
+	 */
+	public void cancel() {
+		cancelled = true;
+		PhaseProgress phase = currentPhase;
+		if (phase != null)
+			phase.cancel();
+	}
+
+	/**
+	 * @return Progress of the current, or last run, phase. {@code null} if no phase has been run.
+	 */
+	public PhaseProgress getProgress() {
+		return currentPhase;
+	}
+
+	/**
+	 * @return Metrics of the last run. Phases of {@link #apply()} are added to the run they apply.
+	 */
+	public RunMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * @return Number of mappings created by the last run.
+	 */
+	public int getMappingCount() {
+		return classMappings.size() + fieldMappings.size() + methodMappings.size();
+	}
+
+	private void clearMappings() {
+		classMappings.clear();
+		fieldMappings.clear();
+		methodMappings.clear();
+	}
+
+	/**
+	 * @param key
+	 * 		Mapping key, as described in {@link MappingKeys}.
+	 * @param mapped
+	 * 		Mapped name.
+	 */
+	private void putMapping(String key, String mapped) {
+		if (MappingKeys.isClass(key))
+			classMappings.put(key, mapped);
+		else if (MappingKeys.isField(key))
+			fieldMappings.put(symbols.fromMappingKey(key), mapped);
+		else
+			methodMappings.put(symbols.fromMappingKey(key), mapped);
+	}
+
+	/**
+	 * @return Mappings of the last run, with keys as described in {@link MappingKeys}.
+	 * Member keys are rebuilt from the symbol table on each call.
+	 */
+	private Map<String, String> buildMappings() {
+		Map<String, String> result = new HashMap<>(classMappings);
+		fieldMappings.forEach((key, mapped) -> result.put(symbols.toFieldKey(key), mapped));
+		methodMappings.forEach((key, mapped) -> result.put(symbols.toMethodKey(key), mapped));
+		return result;
 	}
 
 	/**
 	 * @param matchedNames
 	 * 		Names of classes to collect.
 	 *
-	 * @return Set of nodes from the given names.
-	 */
-	private Set<ClassNode> collectNodes(Set<String> matchedNames) {
-		Set<ClassNode> nodes = Collections.newSetFromMap(new ConcurrentHashMap<>());
-		pooled("Collect-Nodes", service -> {
-			for (String name : matchedNames) {
-				service.submit(() -> {
-					ClassReader cr = controller.getWorkspace().getClassReader(name);
-					if (cr == null) {
-						Log.warn("AutoRenamer failed to read class from workspace: " + name);
-						return;
-					}
-					ClassNode node = ClassUtil.getNode(cr, ClassReader.SKIP_FRAMES);
-					nodes.add(node);
-				});
-			}
-		});
-		return nodes;
+	 * @return Nodes from the given names, shared with the naming strategy through the {@link ClassRegistry}.
+	 * {@code null} if collection did not complete.
+	 */
+	private Collection<ClassNode> collectNodes(Set<String> matchedNames) {
+		if (!runPhase("Collect-Nodes", Collections.singletonList(matchedNames), registry::register))
+			return null;
+		return registry.getMatchedNodes();
 	}
 
 	/**
-	 * Generate mapping for class.
+	 * Propose a new name for a class.
 	 *
 	 * @param node
 	 * 		Class to rename.
+	 * @param proposed
+	 * 		Proposed names of the current wave to add to.
 	 */
-	private void analyzeClass(ClassNode node) {
+	private void proposeClass(ClassNode node, Map<ClassNode, String> proposed) {
 		try {
-			// Skip special cases: 'module-info'/'package-info'
-			if (node.name.matches("(?:[\\w\\/]+\\/)?(?:module|package)-info")) {
-				return;
-			}
-			// Class name
-			String oldClassName = node.name;
-			String newClassName = generator.createClassName(node);
-			if (newClassName != null) {
-				mappings.put(oldClassName, newClassName);
+			String simpleName = generator.proposeClassName(node);
+			if (simpleName != null) {
+				proposed.put(node, simpleName);
 			}
 		} catch (Throwable t) {
-			Log.error(t, "Error occurred in Processor#analyzeClass");
+			Log.error(t, "Error occurred in Processor#proposeClass");
+		}
+	}
+
+	/**
+	 * Generate mappings for the classes of a wave from their proposed names.
+	 *
+	 * @param wave
+	 * 		Classes of the wave, sorted by name.
+	 * @param proposed
+	 * 		Proposed names of the wave. Cleared once claimed.
+	 */
+	private void claimClasses(Collection<ClassNode> wave, Map<ClassNode, String> proposed) {
+		for (ClassNode node : wave) {
+			String simpleName = proposed.get(node);
+			if (simpleName != null) {
+				classMappings.put(node.name, generator.claimClassName(node, simpleName));
+			}
 		}
+		proposed.clear();
 	}
 
 	/**
@@ -142,7 +307,7 @@ public class Processor {
 				String oldFieldName = field.name;
 				String newFieldName = generator.createFieldName(node, field);
 				if (newFieldName != null) {
-					mappings.put(oldClassName + "." + oldFieldName + " " + field.desc, newFieldName);
+					fieldMappings.put(symbols.memberKey(oldClassName, oldFieldName, field.desc), newFieldName);
 				}
 			}
 		} catch (Throwable t) {
@@ -168,7 +333,10 @@ public class Processor {
 				String oldMethodName = method.name;
 				String newMethodName = generator.createMethodName(node, method);
 				if (newMethodName != null) {
-					mappings.put(oldClassName + "." + oldMethodName + method.desc, newMethodName);
+					// Overridden and overriding declarations are renamed together, even in classes outside the run,
+					// since they would no longer be linked otherwise
+					for (String owner : generator.getMethodOwners(node, method))
+						methodMappings.put(symbols.memberKey(owner, oldMethodName, method.desc), newMethodName);
 				}
 				// Method variable names
 				if (!plugin.pruneDebugInfo && method.localVariables != null) {
@@ -188,50 +356,211 @@ public class Processor {
 
 	/**
 	 * Applies the mappings created from {@link #analyze(Set) the analysis phase}
-	 * to the primary resource of the workspace
+	 * to the primary resource of the workspace.
+	 * Only classes that declare or refer to mapped names, as found by the plugin's {@link ReferenceIndex},
+	 * are rewritten. When debug info is pruned, all classes are rewritten.
+	 * <br>
+	 * Classes are remapped in shards on the shared {@link ExecutionEngine} against a read-only copy of the mappings.
+	 * The results are merged into the resource in one step once every shard completed, so a cancelled
+	 * apply, or one that failed on any class, leaves the resource unchanged.
+	 *
+	 * @return {@code true} when the mappings were applied.
+	 * {@code false} when the analysis or the apply phase did not complete, or any class could not be mapped.
 	 */
-	public void apply() {
-		SortedMap<String, String> sortedMappings = new TreeMap<>(mappings);
-		Mappings mapper = new Mappings(controller.getWorkspace());
-		mapper.setCheckFieldHierarchy(true);
-		mapper.setCheckMethodHierarchy(true);
+	public boolean apply() {
+		if (!analyzed) {
+			Log.warn("Skipping auto-mapping, the analysis did not complete");
+			return false;
+		}
+		try {
+			return applyMappings();
+		} finally {
+			// The full nodes of the run are not needed past this point, and views may be stale once classes are renamed
+			registry.clear();
+		}
+	}
+
+	private boolean applyMappings() {
+		JavaResource primary = controller.getWorkspace().getPrimary();
+		Map<String, byte[]> classes = primary.getClasses();
+		Map<String, String> mappingView = Collections.unmodifiableMap(buildMappings());
+		Collection<String> affected;
 		if (plugin.pruneDebugInfo) {
-			mapper.setClearDebugInfo(true);
+			affected = new ArrayList<>(classes.keySet());
+		} else {
+			ReferenceIndex index = plugin.getReferenceIndex(primary);
+			plugin.getExecutionEngine().execute(() -> index.update(classes));
+			affected = index.getAffectedClasses(mappingView);
+		}
+		// Map all affected classes before updating the resource, so hierarchy lookups see the original names
+		MappingApplier applier = new MappingApplier(mappingView, registry, true, true, plugin.pruneDebugInfo);
+		Map<String, byte[]> results = new ConcurrentHashMap<>();
+		AtomicInteger failures = new AtomicInteger();
+		boolean completed = runPhase("Apply mappings", Collections.singletonList(affected), true, name -> {
+			try {
+				results.put(applier.mapClassName(name), applier.apply(classes.get(name)));
+			} catch (Throwable t) {
+				// Keeping the old code of the class would leave it referring to names that no longer exist
+				Log.error(t, "Failed to apply mappings to class: {}", name);
+				failures.incrementAndGet();
+			}
+		});
+		if (!completed) {
+			Log.warn("Skipping auto-mapping, applying the mappings did not complete");
+			return false;
 		}
-		mapper.setMappings(sortedMappings);
-		mapper.accept(controller.getWorkspace().getPrimary());
-		Log.info("Done auto-mapping! Applied {} mappings", sortedMappings.size());
+		if (failures.get() > 0) {
+			Log.warn("Skipping auto-mapping, failed to apply the mappings to {} classes", failures.get());
+			return false;
+		}
+		// Merge into the resource, removing the old names of renamed classes first
+		for (String name : affected)
+			if (!results.containsKey(name))
+				classes.remove(name);
+		classes.putAll(new TreeMap<>(results));
+		controller.getWorkspace().getHierarchyGraph().refresh();
+		// Record the names classes now have, so following runs can skip them
+		for (String name : runClasses)
+			processed.add(classMappings.getOrDefault(name, name));
+		Log.info("Done auto-mapping! Applied {} mappings to {} of {} classes",
+				mappingView.size(), affected.size(), classes.size());
+		return true;
+	}
+
+	/**
+	 * Save the mappings of the last run.
+	 *
+	 * @param path
+	 * 		File to write to.
+	 * @param format
+	 * 		Format to write in.
+	 *
+	 * @return Number of saved mappings.
+	 *
+	 * @throws IOException
+	 * 		When the file cannot be written to.
+	 */
+	public int exportMappings(Path path, MappingFormat format) throws IOException {
+		return MappingWriter.write(path, format,
+				new GroupedMappings(symbols, classMappings, fieldMappings, methodMappings));
 	}
 
 	/**
-	 * Run a task that utilizes {@link ExecutorService} for parallel execution.
-	 * Pooled
+	 * Load mappings in place of an analysis run, which can then be {@link #apply() applied}.
+	 * The naming strategy is seeded with the mappings, so later runs stay consistent with them.
+	 *
+	 * @param path
+	 * 		File to read from.
+	 * @param format
+	 * 		Format of the file.
+	 *
+	 * @return Number of loaded mappings.
+	 *
+	 * @throws IOException
+	 * 		When the file cannot be read.
+	 */
+	public int importMappings(Path path, MappingFormat format) throws IOException {
+		clearMappings();
+		registry.clear();
+		metrics = new RunMetrics();
+		cancelled = false;
+		analyzed = false;
+		Map<String, String> imported = new HashMap<>();
+		MappingReader.read(path, format, this::findFieldDesc, imported::put);
+		imported.forEach(this::putMapping);
+		generator.seed(imported);
+		runClasses = new ArrayList<>(classMappings.keySet());
+		metrics.setClassCount(runClasses.size());
+		metrics.setMappingCounts(classMappings.size(), fieldMappings.size(), methodMappings.size());
+		analyzed = true;
+		return imported.size();
+	}
+
+	/**
+	 * @param owner
+	 * 		Class defining the field.
+	 * @param name
+	 * 		Field name.
+	 *
+	 * @return Descriptor of the field, or {@code null} if the field could not be found.
+	 */
+	private String findFieldDesc(String owner, String name) {
+		ClassNode node = registry.getNode(owner);
+		if (node != null)
+			for (FieldNode field : node.fields)
+				if (field.name.equals(name))
+					return field.desc;
+		return null;
+	}
+
+	/**
+	 * Run a phase on the plugin's shared {@link ExecutionEngine} and wait for it to complete.
 	 *
 	 * @param phaseName
-	 * 		Task name.
-	 * @param task
-	 * 		Task to run.
+	 * 		Phase name.
+	 * @param waves
+	 * 		Waves of items, where each wave is completed before the next is started.
+	 * @param action
+	 * 		Action to run on each item.
+	 * @param <T>
+	 * 		Item type.
+	 *
+	 * @return {@code true} when the phase completed. {@code false} when it was cancelled or failed.
 	 */
-	private void pooled(String phaseName, Consumer<ExecutorService> task) {
-		try {
-			long start = System.currentTimeMillis();
-			Log.info("AutoRename Processing: Task '{}' starting", phaseName);
-			ExecutorService service;
-			if (generator.allowMultiThread()) {
-				service = Executors.newFixedThreadPool(getThreadCount());
-			} else {
-				service = Executors.newSingleThreadExecutor();
-			}
-			task.accept(service);
-			service.shutdown();
-			service.awaitTermination(plugin.phaseTimeout, TimeUnit.SECONDS);
-			Log.info("AutoRename Processing: Task '{}' completed in {}ms", phaseName, (System.currentTimeMillis() - start));
-		} catch (Throwable t) {
-			Log.error(t, "Failed processor phase '{}', reason: {}", phaseName, t.getMessage());
-		}
+	private <T> boolean runPhase(String phaseName, List<? extends Collection<T>> waves, Consumer<T> action) {
+		return runPhase(phaseName, waves, generator.allowMultiThread(), action);
 	}
 
-	private static int getThreadCount() {
-		return Runtime.getRuntime().availableProcessors();
+	/**
+	 * Run a phase on the plugin's shared {@link ExecutionEngine} and wait for it to complete.
+	 *
+	 * @param phaseName
+	 * 		Phase name.
+	 * @param waves
+	 * 		Waves of items, where each wave is completed before the next is started.
+	 * @param multiThread
+	 * 		{@code false} to run all items on a single thread.
+	 * @param action
+	 * 		Action to run on each item.
+	 * @param <T>
+	 * 		Item type.
+	 *
+	 * @return {@code true} when the phase completed. {@code false} when it was cancelled or failed.
+	 */
+	private <T> boolean runPhase(String phaseName, List<? extends Collection<T>> waves, boolean multiThread,
+								 Consumer<T> action) {
+		return runPhase(phaseName, waves, multiThread, action, null);
+	}
+
+	/**
+	 * Run a phase on the plugin's shared {@link ExecutionEngine} and wait for it to complete.
+	 *
+	 * @param phaseName
+	 * 		Phase name.
+	 * @param waves
+	 * 		Waves of items, where each wave is completed before the next is started.
+	 * @param multiThread
+	 * 		{@code false} to run all items on a single thread.
+	 * @param action
+	 * 		Action to run on each item.
+	 * @param waveAction
+	 * 		Action to run once the items of a wave are done, before the next wave. May be {@code null}.
+	 * @param <T>
+	 * 		Item type.
+	 *
+	 * @return {@code true} when the phase completed. {@code false} when it was cancelled or failed.
+	 */
+	private <T> boolean runPhase(String phaseName, List<? extends Collection<T>> waves, boolean multiThread,
+								 Consumer<T> action, Consumer<Collection<T>> waveAction) {
+		int total = 0;
+		for (Collection<T> wave : waves)
+			total += wave.size();
+		PhaseProgress phase = new PhaseProgress(phaseName, total);
+		currentPhase = phase;
+		// Cancel may have been requested before the phase was assigned
+		if (cancelled)
+			phase.cancel();
+		metrics.addPhase(phase);
+		return plugin.getExecutionEngine().run(phase, waves, multiThread, action, waveAction);
 	}
 }
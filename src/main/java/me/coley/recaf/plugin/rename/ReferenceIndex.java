@@ -0,0 +1,197 @@
+package me.coley.recaf.plugin.rename;
+
+import me.coley.recaf.plugin.rename.mapping.MappingKeys;
+import me.coley.recaf.util.Log;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.commons.ClassRemapper;
+import org.objectweb.asm.commons.Remapper;
+import org.objectweb.asm.tree.ClassNode;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reverse index of the references made by classes of a resource.
+ * For each referenced class and member, it records which classes refer to it, including declarations.
+ * This allows mappings to be applied to only the classes they affect, rather than the whole resource.
+ * <br>
+ * Members are indexed by name and descriptor without their owner, since a reference through a child type
+ * can resolve to a member declared in a parent. Method names of {@code invokedynamic} call sites are indexed
+ * by name only, since their descriptor describes the call site and not the implemented method.
+ * <br>
+ * The index is built once and then {@link #update(Map) updated} with only the classes that changed.
+ *
+ * @author Matt Coley
+ */
+public class ReferenceIndex {
+	private final Map<String, Set<String>> classReferrers = new ConcurrentHashMap<>();
+	private final Map<String, Set<String>> memberReferrers = new ConcurrentHashMap<>();
+	private final Map<String, Set<String>> dynamicReferrers = new ConcurrentHashMap<>();
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * Bring the index up to date with the given classes.
+	 * Classes that were removed or whose bytecode changed are dropped, then new and changed classes are indexed.
+	 * Indexing is done in parallel, on the fork-join pool of the caller if it runs in one.
+	 *
+	 * @param classes
+	 * 		Current classes of the resource.
+	 */
+	public void update(Map<String, byte[]> classes) {
+		int removed = 0;
+		for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+			Map.Entry<String, Entry> e = it.next();
+			if (classes.get(e.getKey()) != e.getValue().code) {
+				unlink(e.getKey(), e.getValue());
+				it.remove();
+				removed++;
+			}
+		}
+		Set<Map.Entry<String, byte[]>> added = new HashSet<>();
+		for (Map.Entry<String, byte[]> e : classes.entrySet())
+			if (!entries.containsKey(e.getKey()))
+				added.add(e);
+		added.parallelStream().forEach(e -> index(e.getKey(), e.getValue()));
+		if (removed > 0 || !added.isEmpty())
+			Log.debug("Reference index: Dropped {} classes, indexed {} classes", removed, added.size());
+	}
+
+	/**
+	 * @param mappings
+	 * 		Mappings, with keys as described in {@link MappingKeys}.
+	 *
+	 * @return Names of indexed classes that declare or refer to any of the mapped classes or members.
+	 */
+	public Set<String> getAffectedClasses(Map<String, String> mappings) {
+		Set<String> affected = new HashSet<>();
+		for (String key : mappings.keySet()) {
+			if (MappingKeys.isClass(key)) {
+				affected.add(key);
+				addAll(affected, classReferrers.get(key));
+			} else {
+				String name = MappingKeys.getName(key);
+				affected.add(MappingKeys.getOwner(key));
+				addAll(affected, memberReferrers.get(memberKey(name, MappingKeys.getDesc(key))));
+				if (MappingKeys.isMethod(key))
+					addAll(affected, dynamicReferrers.get(name));
+			}
+		}
+		// Only indexed classes exist in the resource
+		affected.removeIf(name -> !entries.containsKey(name));
+		return affected;
+	}
+
+	/**
+	 * @return Number of indexed classes.
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Remove all indexed classes.
+	 */
+	public void clear() {
+		classReferrers.clear();
+		memberReferrers.clear();
+		dynamicReferrers.clear();
+		entries.clear();
+	}
+
+	private void index(String name, byte[] code) {
+		Entry entry = new Entry(code);
+		try {
+			// The remapper only visits members that the delegate visits too, so a node is used to accept everything
+			new ClassReader(code).accept(new ClassRemapper(new ClassNode(), new RecordingRemapper(entry)), 0);
+		} catch (Throwable t) {
+			Log.error(t, "Reference index failed to read class: {}", name);
+		}
+		link(name, entry.classes, classReferrers);
+		link(name, entry.members, memberReferrers);
+		link(name, entry.dynamics, dynamicReferrers);
+		entries.put(name, entry);
+	}
+
+	private void unlink(String name, Entry entry) {
+		unlink(name, entry.classes, classReferrers);
+		unlink(name, entry.members, memberReferrers);
+		unlink(name, entry.dynamics, dynamicReferrers);
+	}
+
+	private static void link(String name, Collection<String> keys, Map<String, Set<String>> referrers) {
+		for (String key : keys)
+			referrers.computeIfAbsent(key, k -> Collections.newSetFromMap(new ConcurrentHashMap<>())).add(name);
+	}
+
+	private static void unlink(String name, Collection<String> keys, Map<String, Set<String>> referrers) {
+		for (String key : keys) {
+			Set<String> set = referrers.get(key);
+			if (set != null)
+				set.remove(name);
+		}
+	}
+
+	private static void addAll(Set<String> target, Set<String> source) {
+		if (source != null)
+			target.addAll(source);
+	}
+
+	private static String memberKey(String name, String desc) {
+		return name + " " + desc;
+	}
+
+	/**
+	 * References made by a single class, kept so they can be dropped when the class changes.
+	 */
+	private static class Entry {
+		private final Set<String> classes = new HashSet<>();
+		private final Set<String> members = new HashSet<>();
+		private final Set<String> dynamics = new HashSet<>();
+		private final byte[] code;
+
+		private Entry(byte[] code) {
+			this.code = code;
+		}
+	}
+
+	/**
+	 * Remapper that keeps all names as they are, recording each name it is asked to map.
+	 * Running a class through a {@link ClassRemapper} with it visits every reference the remapper would change.
+	 */
+	private static class RecordingRemapper extends Remapper {
+		private final Entry entry;
+
+		private RecordingRemapper(Entry entry) {
+			this.entry = entry;
+		}
+
+		@Override
+		public String map(String internalName) {
+			entry.classes.add(internalName);
+			return internalName;
+		}
+
+		@Override
+		public String mapFieldName(String owner, String name, String descriptor) {
+			entry.members.add(memberKey(name, descriptor));
+			return name;
+		}
+
+		@Override
+		public String mapMethodName(String owner, String name, String descriptor) {
+			entry.members.add(memberKey(name, descriptor));
+			return name;
+		}
+
+		@Override
+		public String mapInvokeDynamicMethodName(String name, String descriptor) {
+			entry.dynamics.add(name);
+			return name;
+		}
+	}
+}
@@ -0,0 +1,181 @@
+package me.coley.recaf.plugin.rename;
+
+import me.coley.recaf.plugin.rename.mapping.MappingKeys;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns class names, member names and descriptors to int ids, so that member lookups can be keyed
+ * by a single {@code long} rather than a new concatenated string per lookup.
+ * Each kind of symbol has its own id space of {@value #ID_BITS} bits, so an owner, name and descriptor triple
+ * packs into one {@code long}. Strings are only rebuilt from keys when mappings are emitted.
+ * <br>
+ * Ids are never released, so keys stay valid for the lifetime of the table.
+ *
+ * @author Matt Coley
+ */
+public class SymbolTable {
+	/**
+	 * Number of bits of each id in a packed key.
+	 */
+	public static final int ID_BITS = 21;
+	private static final int ID_MASK = (1 << ID_BITS) - 1;
+	private final Pool classes = new Pool("class names");
+	private final Pool names = new Pool("member names");
+	private final Pool descs = new Pool("descriptors");
+
+	/**
+	 * @param owner
+	 * 		Class defining the member.
+	 * @param name
+	 * 		Member name.
+	 * @param desc
+	 * 		Member descriptor.
+	 *
+	 * @return Packed key of the member.
+	 */
+	public long memberKey(String owner, String name, String desc) {
+		return pack(classes.intern(owner), names.intern(name), descs.intern(desc));
+	}
+
+	/**
+	 * @param key
+	 * 		Packed key of a member.
+	 *
+	 * @return Name of the class defining the member.
+	 */
+	public String getOwner(long key) {
+		return classes.get((int) (key >>> (ID_BITS * 2)));
+	}
+
+	/**
+	 * @param key
+	 * 		Packed key of a member.
+	 *
+	 * @return Member name.
+	 */
+	public String getName(long key) {
+		return names.get((int) (key >>> ID_BITS) & ID_MASK);
+	}
+
+	/**
+	 * @param key
+	 * 		Packed key of a member.
+	 *
+	 * @return Member descriptor.
+	 */
+	public String getDesc(long key) {
+		return descs.get((int) key & ID_MASK);
+	}
+
+	/**
+	 * @param key
+	 * 		Packed key of a field.
+	 *
+	 * @return Mapping key of the field, as described in {@link MappingKeys}.
+	 */
+	public String toFieldKey(long key) {
+		return MappingKeys.field(getOwner(key), getName(key), getDesc(key));
+	}
+
+	/**
+	 * @param key
+	 * 		Packed key of a method.
+	 *
+	 * @return Mapping key of the method, as described in {@link MappingKeys}.
+	 */
+	public String toMethodKey(long key) {
+		return MappingKeys.method(getOwner(key), getName(key), getDesc(key));
+	}
+
+	/**
+	 * @param mappingKey
+	 * 		Field or method mapping key, as described in {@link MappingKeys}.
+	 *
+	 * @return Packed key of the member.
+	 */
+	public long fromMappingKey(String mappingKey) {
+		return memberKey(MappingKeys.getOwner(mappingKey), MappingKeys.getName(mappingKey),
+				MappingKeys.getDesc(mappingKey));
+	}
+
+	/**
+	 * @param key
+	 * 		Packed key of a member.
+	 *
+	 * @return Key without the owner, which is equal for members with the same name and descriptor.
+	 */
+	public static long withoutOwner(long key) {
+		return key & ((1L << (ID_BITS * 2)) - 1);
+	}
+
+	/**
+	 * @param a
+	 * 		Packed key of a member.
+	 * @param b
+	 * 		Packed key of another member.
+	 *
+	 * @return {@code true} when both members are defined by the same class.
+	 * The owner is in the highest bits, so sorted keys are grouped by owner.
+	 */
+	public static boolean isSameOwner(long a, long b) {
+		return a >>> (ID_BITS * 2) == b >>> (ID_BITS * 2);
+	}
+
+	/**
+	 * @return Number of interned symbols.
+	 */
+	public int size() {
+		return classes.size() + names.size() + descs.size();
+	}
+
+	private static long pack(int owner, int name, int desc) {
+		return ((long) owner << (ID_BITS * 2)) | ((long) name << ID_BITS) | desc;
+	}
+
+	/**
+	 * Id space of a single kind of symbol.
+	 */
+	private static class Pool {
+		private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+		private final List<String> values = new ArrayList<>();
+		private final String kind;
+
+		private Pool(String kind) {
+			this.kind = kind;
+		}
+
+		private int intern(String value) {
+			// Most lookups are for known symbols, which do not need the lock of computeIfAbsent
+			Integer id = ids.get(value);
+			if (id != null)
+				return id;
+			return ids.computeIfAbsent(value, this::add);
+		}
+
+		private int add(String value) {
+			synchronized (values) {
+				int id = values.size();
+				if (id > ID_MASK)
+					throw new IllegalStateException("Too many " + kind + " for packed keys, limit is " + (ID_MASK + 1));
+				values.add(value);
+				return id;
+			}
+		}
+
+		private String get(int id) {
+			synchronized (values) {
+				return values.get(id);
+			}
+		}
+
+		private int size() {
+			synchronized (values) {
+				return values.size();
+			}
+		}
+	}
+}
@@ -0,0 +1,265 @@
+package me.coley.recaf.plugin.rename.analysis;
+
+import me.coley.recaf.Recaf;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistent cache of {@link ClassAnalysis} results, keyed by a hash of each class's bytes.
+ * Classes that have not changed since a prior session can skip feature extraction and classification.
+ * <br>
+ * Entries are held in a memory-mapped file of fixed size. The file is split into sets of
+ * {@link #WAYS} slots, a class may only be stored in the set its hash points to.
+ * When a set is full the least recently used entry of the set is replaced.
+ * The file is reset when the model it was created with changes.
+ * <br>
+ * The file is locked for as long as the cache is used, so only one process maps it at a time.
+ * Other processes fail to {@link #open(Path, String, int) open} the cache while it is held, and run without one.
+ *
+ * @author Matt Coley
+ */
+public class AnalysisCache {
+	private static final String CACHE_DIR = "auto-renamer";
+	private static final String CACHE_FILE = "analysis-cache.bin";
+	private static final int MAGIC = 0x41524143;
+	private static final int VERSION = 1;
+	private static final int WAYS = 8;
+	private static final int LOCKS = 64;
+	private static final int FEATURES = ClassDataCollector.LABELS.length;
+	// Header: magic, version, set count, model hash, access clock
+	private static final int HEADER_SIZE = 4 + 4 + 4 + 8 + 8;
+	private static final int CLOCK_OFFSET = 20;
+	// Slot: class hash, class length, access stamp, classification ordinal, probability, features
+	private static final int SLOT_SIZE = 8 + 4 + 8 + 4 + 8 + FEATURES * 8;
+	private static final int OFF_LENGTH = 8;
+	private static final int OFF_STAMP = 12;
+	private static final int OFF_CLASSIFICATION = 20;
+	private static final int OFF_PROBABILITY = 24;
+	private static final int OFF_FEATURES = 32;
+	// Keeps the file under 200MiB
+	private static final int MAX_SETS = 1 << 18;
+	// Files opened by this process. Closing a second channel to a locked file would release the lock on some systems,
+	// so a file is not opened again while in use.
+	private static final Set<Path> OPEN_FILES = ConcurrentHashMap.newKeySet();
+	private final Object[] locks = new Object[LOCKS];
+	// Referenced so the channel is not closed, which would release the file lock
+	private final FileChannel channel;
+	private final FileLock fileLock;
+	private final MappedByteBuffer buffer;
+	private final AtomicLong clock;
+	private final int sets;
+
+	private AnalysisCache(FileChannel channel, FileLock fileLock, MappedByteBuffer buffer, int sets, long clock) {
+		this.channel = channel;
+		this.fileLock = fileLock;
+		this.buffer = buffer;
+		this.sets = sets;
+		this.clock = new AtomicLong(clock);
+		for (int i = 0; i < LOCKS; i++)
+			locks[i] = new Object();
+	}
+
+	/**
+	 * @param path
+	 * 		Cache file location.
+	 * @param modelKey
+	 * 		Key of the model used to classify classes, see {@link ModelCache#computeKey()}.
+	 * @param maxEntries
+	 * 		Maximum number of entries to hold, rounded up to a power of two.
+	 * 		Changing the value resets the cache.
+	 *
+	 * @return Cache backed by the file.
+	 *
+	 * @throws IOException
+	 * 		When the file cannot be opened, or is in use by another process.
+	 */
+	public static AnalysisCache open(Path path, String modelKey, int maxEntries) throws IOException {
+		int sets = 1;
+		while (sets * WAYS < maxEntries && sets < MAX_SETS)
+			sets <<= 1;
+		int size = HEADER_SIZE + sets * WAYS * SLOT_SIZE;
+		long modelHash = hash(modelKey.getBytes(StandardCharsets.UTF_8));
+		Path file = path.toAbsolutePath().normalize();
+		if (!OPEN_FILES.add(file))
+			throw new IOException("Analysis cache is already in use: " + path);
+		FileChannel channel;
+		try {
+			Files.createDirectories(file.getParent());
+			channel = FileChannel.open(file, StandardOpenOption.CREATE,
+					StandardOpenOption.READ, StandardOpenOption.WRITE);
+		} catch (IOException | RuntimeException ex) {
+			OPEN_FILES.remove(file);
+			throw ex;
+		}
+		try {
+			// Nothing is read or written until the lock is held, since another process may have the file mapped
+			FileLock fileLock;
+			try {
+				fileLock = channel.tryLock();
+			} catch (OverlappingFileLockException ex) {
+				fileLock = null;
+			}
+			if (fileLock == null)
+				throw new IOException("Analysis cache is in use by another process: " + path);
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			channel.read(header, 0);
+			boolean valid = channel.size() == size && header.getInt(0) == MAGIC && header.getInt(4) == VERSION &&
+					header.getInt(8) == sets && header.getLong(12) == modelHash;
+			// Emptying the file first ensures the mapped region is zeroed, which marks all slots as empty.
+			// The lock is held by this process, so no other process can have the file mapped.
+			if (!valid)
+				channel.truncate(0);
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+			if (!valid) {
+				buffer.putInt(0, MAGIC);
+				buffer.putInt(4, VERSION);
+				buffer.putInt(8, sets);
+				buffer.putLong(12, modelHash);
+				buffer.putLong(CLOCK_OFFSET, 0);
+			}
+			return new AnalysisCache(channel, fileLock, buffer, sets, buffer.getLong(CLOCK_OFFSET));
+		} catch (IOException | RuntimeException ex) {
+			// Closing the channel releases the lock
+			channel.close();
+			OPEN_FILES.remove(file);
+			throw ex;
+		}
+	}
+
+	/**
+	 * @return Default cache file location, in the Recaf directory.
+	 */
+	public static Path getDefaultPath() {
+		return Recaf.getDirectory().resolve(CACHE_DIR).resolve(CACHE_FILE);
+	}
+
+	/**
+	 * @param classBytes
+	 * 		Class file content.
+	 *
+	 * @return Cached analysis of the class, or {@code null} if the class is not cached.
+	 */
+	public ClassAnalysis get(byte[] classBytes) {
+		long hash = hash(classBytes);
+		int set = (int) (hash & (sets - 1));
+		synchronized (locks[set & (LOCKS - 1)]) {
+			int slot = find(set, hash, classBytes.length);
+			if (slot < 0)
+				return null;
+			buffer.putLong(slot + OFF_STAMP, nextStamp());
+			double[] features = new double[FEATURES];
+			for (int i = 0; i < FEATURES; i++)
+				features[i] = buffer.getDouble(slot + OFF_FEATURES + i * 8);
+			Classification classification = Classification.values()[buffer.getInt(slot + OFF_CLASSIFICATION)];
+			return new ClassAnalysis(features, classification, buffer.getDouble(slot + OFF_PROBABILITY));
+		}
+	}
+
+	/**
+	 * @param classBytes
+	 * 		Class file content.
+	 * @param analysis
+	 * 		Analysis of the class.
+	 */
+	public void put(byte[] classBytes, ClassAnalysis analysis) {
+		long hash = hash(classBytes);
+		int set = (int) (hash & (sets - 1));
+		synchronized (locks[set & (LOCKS - 1)]) {
+			int slot = find(set, hash, classBytes.length);
+			if (slot < 0)
+				slot = evict(set);
+			buffer.putLong(slot, hash);
+			buffer.putInt(slot + OFF_LENGTH, classBytes.length);
+			buffer.putLong(slot + OFF_STAMP, nextStamp());
+			buffer.putInt(slot + OFF_CLASSIFICATION, analysis.getClassification().ordinal());
+			buffer.putDouble(slot + OFF_PROBABILITY, analysis.getProbability());
+			double[] features = analysis.getFeatures();
+			for (int i = 0; i < FEATURES; i++)
+				buffer.putDouble(slot + OFF_FEATURES + i * 8, features[i]);
+		}
+	}
+
+	/**
+	 * Write pending changes to disk.
+	 */
+	public void flush() {
+		synchronized (buffer) {
+			buffer.putLong(CLOCK_OFFSET, clock.get());
+			buffer.force();
+		}
+	}
+
+	/**
+	 * @param set
+	 * 		Set index.
+	 * @param hash
+	 * 		Class hash.
+	 * @param length
+	 * 		Class length.
+	 *
+	 * @return Offset of the slot holding the class, or {@code -1} if not present.
+	 */
+	private int find(int set, long hash, int length) {
+		int base = HEADER_SIZE + set * WAYS * SLOT_SIZE;
+		for (int way = 0; way < WAYS; way++) {
+			int slot = base + way * SLOT_SIZE;
+			// Empty slots have a stamp of zero
+			if (buffer.getLong(slot + OFF_STAMP) != 0 &&
+					buffer.getLong(slot) == hash && buffer.getInt(slot + OFF_LENGTH) == length)
+				return slot;
+		}
+		return -1;
+	}
+
+	/**
+	 * @param set
+	 * 		Set index.
+	 *
+	 * @return Offset of the least recently used slot in the set.
+	 */
+	private int evict(int set) {
+		int base = HEADER_SIZE + set * WAYS * SLOT_SIZE;
+		int oldest = base;
+		long oldestStamp = Long.MAX_VALUE;
+		for (int way = 0; way < WAYS; way++) {
+			int slot = base + way * SLOT_SIZE;
+			long stamp = buffer.getLong(slot + OFF_STAMP);
+			if (stamp < oldestStamp) {
+				oldestStamp = stamp;
+				oldest = slot;
+			}
+		}
+		return oldest;
+	}
+
+	private long nextStamp() {
+		return clock.incrementAndGet();
+	}
+
+	/**
+	 * @param data
+	 * 		Content to hash.
+	 *
+	 * @return 64-bit FNV-1a hash of the content.
+	 */
+	private static long hash(byte[] data) {
+		long h = 0xcbf29ce484222325L;
+		for (byte b : data) {
+			h ^= b & 0xff;
+			h *= 0x100000001b3L;
+		}
+		return h;
+	}
+}
@@ -1,6 +1,5 @@
 package me.coley.recaf.plugin.rename.analysis;
 
-import me.coley.recaf.util.IOUtil;
 import me.coley.recaf.util.Log;
 import org.objectweb.asm.tree.ClassNode;
 import org.tribuo.Dataset;
@@ -11,22 +10,14 @@ import org.tribuo.classification.Label;
 import org.tribuo.classification.LabelFactory;
 import org.tribuo.classification.mnb.MultinomialNaiveBayesModel;
 import org.tribuo.classification.mnb.MultinomialNaiveBayesTrainer;
-import org.tribuo.data.csv.CSVLoader;
 import org.tribuo.impl.ArrayExample;
+import org.tribuo.provenance.SimpleDataSourceProvenance;
 
-import java.io.IOException;
-import java.io.OutputStream;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.text.NumberFormat;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.stream.IntStream;
 
 /**
  * Wrapper around Tribuo's Naive Bayes model.
@@ -34,9 +25,15 @@ import java.util.TreeSet;
  * @author Matt Coley
  */
 public class BayesWrapper {
-	private static final MultinomialNaiveBayesTrainer bayesTrainer = new MultinomialNaiveBayesTrainer(0.75);
+	private static final String TRAINING_FILE = "training.csv";
+	private static final String PACKAGES_FILE = "packages.csv";
+	private static final double SMOOTHING = 0.75;
+	private static final int ANALYSIS_CACHE_SIZE = 1 << 18;
+	private static final MultinomialNaiveBayesTrainer bayesTrainer = new MultinomialNaiveBayesTrainer(SMOOTHING);
 	private static MultinomialNaiveBayesModel bayesModel;
-	private static Map<String, Classification> packageLookup;
+	private static PackageTrie packageLookup;
+	private static NaiveBayesScorer scorer;
+	private static AnalysisCache analysisCache;
 
 	/**
 	 * Quick and dirty testing. Requires the {@code pom.xml} be modified
@@ -81,33 +78,182 @@ public class BayesWrapper {
 	}
 
 	/**
-	 * Initialize the trainer and create a naive bayes model from the training file.
+	 * Initialize the naive bayes model. A model from the {@link ModelCache} is used when one exists
+	 * for the current training data, otherwise the trainer creates one from the training file.
 	 *
 	 * @throws Exception
 	 * 		When the training failed, probably due to an issue reading the training file off the classpath.
 	 */
-	public static void init() throws Exception {
+	public static synchronized void init() throws Exception {
 		if (bayesModel == null) {
-			bayesModel = (MultinomialNaiveBayesModel) bayesTrainer.train(loadDataSet());
+			String key = ModelCache.computeKey();
+			MultinomialNaiveBayesModel model = ModelCache.load(key);
+			if (model == null) {
+				model = (MultinomialNaiveBayesModel) bayesTrainer.train(loadDataSet());
+				ModelCache.save(key, model);
+			}
 			packageLookup = loadPackageLookup();
+			scorer = createScorer(model);
+			analysisCache = openAnalysisCache(key);
+			bayesModel = model;
 		}
 	}
 
+	/**
+	 * @param model
+	 * 		Trained model.
+	 *
+	 * @return Scorer for the model, or {@code null} if its predictions do not match the model.
+	 */
+	private static NaiveBayesScorer createScorer(MultinomialNaiveBayesModel model) {
+		try {
+			NaiveBayesScorer scorer = NaiveBayesScorer.fromModel(model);
+			if (scorer.matches(model))
+				return scorer;
+			Log.warn("Naive bayes scorer does not match the model, falling back to model predictions");
+		} catch (Exception ex) {
+			Log.warn("Failed to create naive bayes scorer, falling back to model predictions: {}", ex.getMessage());
+		}
+		return null;
+	}
+
+	/**
+	 * @param modelKey
+	 * 		Key of the current model.
+	 *
+	 * @return Analysis cache for the model, or {@code null} if it could not be opened.
+	 */
+	private static AnalysisCache openAnalysisCache(String modelKey) {
+		try {
+			return AnalysisCache.open(AnalysisCache.getDefaultPath(), modelKey, ANALYSIS_CACHE_SIZE);
+		} catch (Exception ex) {
+			Log.warn("Failed to open analysis cache: {}", ex.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * @return Cache of analysis results, or {@code null} if not {@link #init() initialized} or unavailable.
+	 */
+	public static AnalysisCache getAnalysisCache() {
+		return analysisCache;
+	}
+
+	/**
+	 * @return Current model, or {@code null} if not {@link #init() initialized}.
+	 */
+	public static MultinomialNaiveBayesModel getModel() {
+		return bayesModel;
+	}
+
+	/**
+	 * @return Lookup of package classifications, or {@code null} if not {@link #init() initialized}.
+	 */
+	public static PackageTrie getPackageLookup() {
+		return packageLookup;
+	}
+
+	/**
+	 * @return Description of trainer settings, which invalidates cached models when changed.
+	 */
+	public static String getTrainerSettings() {
+		return "mnb:" + SMOOTHING;
+	}
+
 	/**
 	 * @param node
 	 * 		Class to transform into a model input.
+	 * @param diagnostics
+	 * 		Diagnostics to record uncategorized type references in. May be {@code null}.
 	 *
 	 * @return Model input example instance.
 	 */
-	public static Example<Label> createClassDataExample(ClassNode node) {
-		ClassDataCollector visitor = new ClassDataCollector(packageLookup);
-		node.accept(visitor);
-		return visitor.build();
+	public static Example<Label> createClassDataExample(ClassNode node, TypeDiagnostics diagnostics) {
+		return ClassDataCollector.collect(node, packageLookup, diagnostics).build();
+	}
+
+	/**
+	 * @param node
+	 * 		Class to transform into a model input.
+	 * @param diagnostics
+	 * 		Diagnostics to record uncategorized type references in. May be {@code null}.
+	 *
+	 * @return Normalized feature counts of the class, ordered by {@link ClassDataCollector#LABELS}.
+	 */
+	public static double[] createClassFeatures(ClassNode node, TypeDiagnostics diagnostics) {
+		return ClassDataCollector.collect(node, packageLookup, diagnostics).getFeatures();
+	}
+
+	/**
+	 * Classify many classes at once.
+	 * Rows are classified in parallel, on the fork-join pool of the caller if it runs in one.
+	 *
+	 * @param classificationThreshold
+	 * 		The threshold that must be met for a classification to be made.
+	 * 		If not met, we re-label it as {@link Classification#MISC}.
+	 * @param features
+	 * 		Feature matrix, with one row per class. See {@link #createClassFeatures(ClassNode, TypeDiagnostics)}.
+	 *
+	 * @return Predictions of each class's use case, by row index.
+	 */
+	public static Classification[] classifyAll(double classificationThreshold, double[][] features) {
+		Classification[] results = new Classification[features.length];
+		IntStream.range(0, features.length).parallel()
+				.forEach(row -> results[row] = classify(classificationThreshold, features[row]));
+		return results;
+	}
+
+	/**
+	 * @param classificationThreshold
+	 * 		The threshold that must be met for a classification to be made.
+	 * 		If not met, we re-label it as {@link Classification#MISC}.
+	 * @param features
+	 * 		See {@link #createClassFeatures(ClassNode, TypeDiagnostics)}.
+	 *
+	 * @return Prediction of the class's use case.
+	 */
+	public static Classification classify(double classificationThreshold, double[] features) {
+		NaiveBayesScorer current = scorer;
+		if (current != null)
+			return current.classify(classificationThreshold, features);
+		Example<Label> example = new ArrayExample<>(null, ClassDataCollector.LABELS, features);
+		return getPredictedClassification(classificationThreshold, example);
+	}
+
+	/**
+	 * Analyze many classes at once.
+	 * Rows are scored in parallel, on the fork-join pool of the caller if it runs in one.
+	 *
+	 * @param features
+	 * 		Feature matrix, with one row per class. See {@link #createClassFeatures(ClassNode, TypeDiagnostics)}.
+	 *
+	 * @return Analysis of each class, by row index.
+	 */
+	public static ClassAnalysis[] analyzeAll(double[][] features) {
+		ClassAnalysis[] results = new ClassAnalysis[features.length];
+		IntStream.range(0, features.length).parallel()
+				.forEach(row -> results[row] = analyze(features[row]));
+		return results;
+	}
+
+	/**
+	 * @param features
+	 * 		See {@link #createClassFeatures(ClassNode, TypeDiagnostics)}.
+	 *
+	 * @return Analysis of the features, holding the most likely classification and its probability.
+	 */
+	public static ClassAnalysis analyze(double[] features) {
+		NaiveBayesScorer current = scorer;
+		if (current != null)
+			return current.analyze(features);
+		Example<Label> example = new ArrayExample<>(null, ClassDataCollector.LABELS, features);
+		Label label = getPrediction(example).getOutput();
+		return new ClassAnalysis(features, toClassification(label.getLabel()), label.getScore());
 	}
 
 	/**
 	 * @param example
-	 * 		See {@link #createClassDataExample(ClassNode)}.
+	 * 		See {@link #createClassDataExample(ClassNode, TypeDiagnostics)}.
 	 *
 	 * @return Prediction of the class's use case, wrapped in {@link Prediction}.
 	 */
@@ -121,7 +267,7 @@ public class BayesWrapper {
 	 * 		The threshold that must be met for a classification to be made.
 	 * 		If not met, we re-label it as {@link Classification#MISC}.
 	 * @param example
-	 * 		See {@link #createClassDataExample(ClassNode)}.
+	 * 		See {@link #createClassDataExample(ClassNode, TypeDiagnostics)}.
 	 *
 	 * @return Prediction of the class's use case.
 	 */
@@ -130,7 +276,16 @@ public class BayesWrapper {
 		if (label.getScore() <= classificationThreshold) {
 			return Classification.MISC;
 		}
-		String labelName = label.getLabel();
+		return toClassification(label.getLabel());
+	}
+
+	/**
+	 * @param labelName
+	 * 		Name of label in the model.
+	 *
+	 * @return Matching classification, or {@link Classification#MISC} for unknown labels.
+	 */
+	static Classification toClassification(String labelName) {
 		try {
 			return Classification.valueOf(labelName.toUpperCase());
 		} catch (Exception ex) {
@@ -147,163 +302,173 @@ public class BayesWrapper {
 	 */
 	private static Dataset<Label> loadDataSet() throws Exception {
 		LabelFactory labelFactory = new LabelFactory();
-		CSVLoader<Label> loader = new CSVLoader<>(',', labelFactory);
-		return new MutableDataset<>(loader.loadDataSource(
-				copyToTempFile(BayesWrapper.class.getResource("/training.csv"), "csv"), "type"));
+		MutableDataset<Label> dataset =
+				new MutableDataset<>(new SimpleDataSourceProvenance<>(TRAINING_FILE, labelFactory), labelFactory);
+		// First line is the header, with the label in the last column and the feature names in the others
+		String[][] featureNames = new String[1][];
+		ResourceLoader.forEachLine("/" + TRAINING_FILE, line -> {
+			String[] columns = line.split(",");
+			if (featureNames[0] == null) {
+				featureNames[0] = new String[columns.length - 1];
+				for (int i = 0; i < featureNames[0].length; i++)
+					featureNames[0][i] = columns[i].trim();
+				return;
+			}
+			double[] values = new double[columns.length - 1];
+			for (int i = 0; i < values.length; i++)
+				values[i] = Double.parseDouble(columns[i].trim());
+			Label label = new Label(columns[columns.length - 1].trim());
+			dataset.add(new ArrayExample<>(label, featureNames[0], values));
+		});
+		return dataset;
 	}
 
 	/**
-	 * @return Map of package names to what their classes are responsible for in classification.
+	 * @return Lookup of package names to what their classes are responsible for in classification.
 	 *
 	 * @throws Exception
 	 * 		When classpath IO decides to ruin your day.
 	 */
-	private static Map<String, Classification> loadPackageLookup() throws Exception {
-		Map<String, Classification> map = new HashMap<>();
-		addJavaPackages(map);
-		addMiscPackages(map);
-		return map;
+	private static PackageTrie loadPackageLookup() throws Exception {
+		PackageTrie lookup = new PackageTrie();
+		addJavaPackages(lookup);
+		addMiscPackages(lookup);
+		return lookup;
 	}
 
 	/**
-	 * Add packages from {@code packages.csv} from the classpath into the given map.
+	 * Add packages from {@code packages.csv} from the classpath into the given lookup.
 	 *
-	 * @param map
-	 * 		Map to populate.
+	 * @param lookup
+	 * 		Lookup to populate.
 	 *
 	 * @throws Exception
 	 * 		When classpath IO decides to ruin your day.
 	 */
-	private static void addMiscPackages(Map<String, Classification> map) throws Exception {
-		Path path = copyToTempFile(BayesWrapper.class.getResource("/packages.csv"), "csv");
-		List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
-		for (String line : lines) {
+	private static void addMiscPackages(PackageTrie lookup) throws Exception {
+		Classification[] values = Classification.values();
+		ResourceLoader.forEachLine("/" + PACKAGES_FILE, line -> {
 			int comma = line.indexOf(',');
 			String packageName = line.substring(0, comma);
-			String className = line.substring(comma + 1).toUpperCase();
-			try {
-				Classification classification = Classification.valueOf(className);
-				map.put(packageName, classification);
-			} catch (Exception ex) {
+			String className = line.substring(comma + 1).trim();
+			Classification classification = null;
+			for (Classification value : values) {
+				if (value.name().equalsIgnoreCase(className)) {
+					classification = value;
+					break;
+				}
+			}
+			if (classification != null) {
+				lookup.put(packageName, classification);
+			} else {
 				Log.warn("Skipping unknown classified package: {} -> {}", packageName, className);
 			}
-		}
+		});
 	}
 
 	/**
-	 * Supply default java packages to the map.
+	 * Supply default java packages to the lookup.
 	 *
-	 * @param map
-	 * 		Map to populate.
+	 * @param lookup
+	 * 		Lookup to populate.
 	 */
-	private static void addJavaPackages(Map<String, Classification> map) {
-		map.put("java/applet", Classification.UI);
-		map.put("java/awt", Classification.UI);
-		map.put("java/awt/color", Classification.UI);
-		map.put("java/awt/datatransfer", Classification.UI);
-		map.put("java/awt/dnd", Classification.UI);
-		map.put("java/awt/event", Classification.UI);
-		map.put("java/awt/font", Classification.UI);
-		map.put("java/awt/geom", Classification.UI);
-		map.put("java/awt/im", Classification.UI);
-		map.put("java/awt/im/spi", Classification.UI);
-		map.put("java/awt/image", Classification.UI);
-		map.put("java/awt/image/renderable", Classification.UI);
-		map.put("java/awt/print", Classification.UI);
-		map.put("java/io", Classification.IO);
-		map.put("java/lang/instrument", Classification.BYTECODE);
-		map.put("java/net", Classification.NETWORKING);
-		map.put("java/nio", Classification.IO);
-		map.put("java/nio/channels", Classification.IO);
-		map.put("java/nio/channels/spi", Classification.IO);
-		map.put("java/nio/charset", Classification.IO);
-		map.put("java/nio/charset/spi", Classification.IO);
-		map.put("java/nio/file", Classification.IO);
-		map.put("java/nio/file/attribute", Classification.IO);
-		map.put("java/nio/file/spi", Classification.IO);
-		map.put("java/rmi", Classification.NETWORKING);
-		map.put("java/rmi/activation", Classification.NETWORKING);
-		map.put("java/rmi/dgc", Classification.NETWORKING);
-		map.put("java/rmi/registry", Classification.NETWORKING);
-		map.put("java/rmi/server", Classification.NETWORKING);
-		map.put("java/security", Classification.SECURITY);
-		map.put("java/security/acl", Classification.SECURITY);
-		map.put("java/security/cert", Classification.SECURITY);
-		map.put("java/security/interfaces", Classification.SECURITY);
-		map.put("java/security/spec", Classification.SECURITY);
-		map.put("java/sql", Classification.IO);
-		map.put("java/util/jar", Classification.IO);
-		map.put("java/util/logging", Classification.IO);
-		map.put("java/util/prefs", Classification.IO);
-		map.put("java/util/stream", Classification.IO);
-		map.put("java/util/zip", Classification.IO);
-		map.put("javax/crypto", Classification.SECURITY);
-		map.put("javax/crypto/interfaces", Classification.SECURITY);
-		map.put("javax/crypto/spec", Classification.SECURITY);
-		map.put("javax/imageio", Classification.UI);
-		map.put("javax/imageio/event", Classification.UI);
-		map.put("javax/imageio/metadata", Classification.UI);
-		map.put("javax/imageio/plugins/bmp", Classification.UI);
-		map.put("javax/imageio/plugins/jpeg", Classification.UI);
-		map.put("javax/imageio/spi", Classification.UI);
-		map.put("javax/imageio/stream", Classification.UI);
-		map.put("javax/management/remote", Classification.NETWORKING);
-		map.put("javax/management/remote/rmi", Classification.NETWORKING);
-		map.put("javax/net", Classification.NETWORKING);
-		map.put("javax/net/ssl", Classification.SECURITY);
-		map.put("javax/rmi", Classification.NETWORKING);
-		map.put("javax/rmi/CORBA", Classification.NETWORKING);
-		map.put("javax/rmi/ssl", Classification.SECURITY);
-		map.put("javax/security/auth", Classification.SECURITY);
-		map.put("javax/security/auth/callback", Classification.SECURITY);
-		map.put("javax/security/auth/kerberos", Classification.SECURITY);
-		map.put("javax/security/auth/login", Classification.SECURITY);
-		map.put("javax/security/auth/spi", Classification.SECURITY);
-		map.put("javax/security/auth/x500", Classification.SECURITY);
-		map.put("javax/security/cert", Classification.SECURITY);
-		map.put("javax/security/sasl", Classification.SECURITY);
-		map.put("javax/sound/midi", Classification.UI);
-		map.put("javax/sound/midi/spi", Classification.UI);
-		map.put("javax/sound/sampled", Classification.UI);
-		map.put("javax/sound/sampled/spi", Classification.UI);
-		map.put("javax/sql", Classification.IO);
-		map.put("javax/sql/rowset", Classification.IO);
-		map.put("javax/sql/rowset/serial", Classification.IO);
-		map.put("javax/sql/rowset/spi", Classification.IO);
-		map.put("javax/swing", Classification.UI);
-		map.put("javax/swing/border", Classification.UI);
-		map.put("javax/swing/colorchooser", Classification.UI);
-		map.put("javax/swing/event", Classification.UI);
-		map.put("javax/swing/filechooser", Classification.UI);
-		map.put("javax/swing/plaf", Classification.UI);
-		map.put("javax/swing/plaf/basic", Classification.UI);
-		map.put("javax/swing/plaf/metal", Classification.UI);
-		map.put("javax/swing/plaf/multi", Classification.UI);
-		map.put("javax/swing/plaf/nimbus", Classification.UI);
-		map.put("javax/swing/plaf/synth", Classification.UI);
-		map.put("javax/swing/table", Classification.UI);
-		map.put("javax/swing/text", Classification.UI);
-		map.put("javax/swing/text/html", Classification.UI);
-		map.put("javax/swing/text/html/parser", Classification.UI);
-		map.put("javax/swing/text/rtf", Classification.UI);
-		map.put("javax/swing/tree", Classification.UI);
-		map.put("javax/swing/undo", Classification.UI);
-		map.put("javax/xml/crypto", Classification.SECURITY);
-		map.put("javax/xml/crypto/dom", Classification.SECURITY);
-		map.put("javax/xml/crypto/dsig", Classification.SECURITY);
-		map.put("javax/xml/crypto/dsig/dom", Classification.SECURITY);
-		map.put("javax/xml/crypto/dsig/keyinfo", Classification.SECURITY);
-		map.put("javax/xml/crypto/dsig/spec", Classification.SECURITY);
-	}
-
-	private static Path copyToTempFile(URL url, String suffix) throws IOException {
-		// TODO: This method is a temporary hack until I can figure out why the plugin jar
-		//      cannot read its own resources...
-		Path tempFile = Files.createTempFile(null, suffix);
-		try (OutputStream out = Files.newOutputStream(tempFile)) {
-			IOUtil.transfer(url, out);
-		}
-		tempFile.toFile().deleteOnExit();
-		return tempFile;
+	private static void addJavaPackages(PackageTrie lookup) {
+		lookup.put("java/applet", Classification.UI);
+		lookup.put("java/awt", Classification.UI);
+		lookup.put("java/awt/color", Classification.UI);
+		lookup.put("java/awt/datatransfer", Classification.UI);
+		lookup.put("java/awt/dnd", Classification.UI);
+		lookup.put("java/awt/event", Classification.UI);
+		lookup.put("java/awt/font", Classification.UI);
+		lookup.put("java/awt/geom", Classification.UI);
+		lookup.put("java/awt/im", Classification.UI);
+		lookup.put("java/awt/im/spi", Classification.UI);
+		lookup.put("java/awt/image", Classification.UI);
+		lookup.put("java/awt/image/renderable", Classification.UI);
+		lookup.put("java/awt/print", Classification.UI);
+		lookup.put("java/io", Classification.IO);
+		lookup.put("java/lang/instrument", Classification.BYTECODE);
+		lookup.put("java/net", Classification.NETWORKING);
+		lookup.put("java/nio", Classification.IO);
+		lookup.put("java/nio/channels", Classification.IO);
+		lookup.put("java/nio/channels/spi", Classification.IO);
+		lookup.put("java/nio/charset", Classification.IO);
+		lookup.put("java/nio/charset/spi", Classification.IO);
+		lookup.put("java/nio/file", Classification.IO);
+		lookup.put("java/nio/file/attribute", Classification.IO);
+		lookup.put("java/nio/file/spi", Classification.IO);
+		lookup.put("java/rmi", Classification.NETWORKING);
+		lookup.put("java/rmi/activation", Classification.NETWORKING);
+		lookup.put("java/rmi/dgc", Classification.NETWORKING);
+		lookup.put("java/rmi/registry", Classification.NETWORKING);
+		lookup.put("java/rmi/server", Classification.NETWORKING);
+		lookup.put("java/security", Classification.SECURITY);
+		lookup.put("java/security/acl", Classification.SECURITY);
+		lookup.put("java/security/cert", Classification.SECURITY);
+		lookup.put("java/security/interfaces", Classification.SECURITY);
+		lookup.put("java/security/spec", Classification.SECURITY);
+		lookup.put("java/sql", Classification.IO);
+		lookup.put("java/util/jar", Classification.IO);
+		lookup.put("java/util/logging", Classification.IO);
+		lookup.put("java/util/prefs", Classification.IO);
+		lookup.put("java/util/stream", Classification.IO);
+		lookup.put("java/util/zip", Classification.IO);
+		lookup.put("javax/crypto", Classification.SECURITY);
+		lookup.put("javax/crypto/interfaces", Classification.SECURITY);
+		lookup.put("javax/crypto/spec", Classification.SECURITY);
+		lookup.put("javax/imageio", Classification.UI);
+		lookup.put("javax/imageio/event", Classification.UI);
+		lookup.put("javax/imageio/metadata", Classification.UI);
+		lookup.put("javax/imageio/plugins/bmp", Classification.UI);
+		lookup.put("javax/imageio/plugins/jpeg", Classification.UI);
+		lookup.put("javax/imageio/spi", Classification.UI);
+		lookup.put("javax/imageio/stream", Classification.UI);
+		lookup.put("javax/management/remote", Classification.NETWORKING);
+		lookup.put("javax/management/remote/rmi", Classification.NETWORKING);
+		lookup.put("javax/net", Classification.NETWORKING);
+		lookup.put("javax/net/ssl", Classification.SECURITY);
+		lookup.put("javax/rmi", Classification.NETWORKING);
+		lookup.put("javax/rmi/CORBA", Classification.NETWORKING);
+		lookup.put("javax/rmi/ssl", Classification.SECURITY);
+		lookup.put("javax/security/auth", Classification.SECURITY);
+		lookup.put("javax/security/auth/callback", Classification.SECURITY);
+		lookup.put("javax/security/auth/kerberos", Classification.SECURITY);
+		lookup.put("javax/security/auth/login", Classification.SECURITY);
+		lookup.put("javax/security/auth/spi", Classification.SECURITY);
+		lookup.put("javax/security/auth/x500", Classification.SECURITY);
+		lookup.put("javax/security/cert", Classification.SECURITY);
+		lookup.put("javax/security/sasl", Classification.SECURITY);
+		lookup.put("javax/sound/midi", Classification.UI);
+		lookup.put("javax/sound/midi/spi", Classification.UI);
+		lookup.put("javax/sound/sampled", Classification.UI);
+		lookup.put("javax/sound/sampled/spi", Classification.UI);
+		lookup.put("javax/sql", Classification.IO);
+		lookup.put("javax/sql/rowset", Classification.IO);
+		lookup.put("javax/sql/rowset/serial", Classification.IO);
+		lookup.put("javax/sql/rowset/spi", Classification.IO);
+		lookup.put("javax/swing", Classification.UI);
+		lookup.put("javax/swing/border", Classification.UI);
+		lookup.put("javax/swing/colorchooser", Classification.UI);
+		lookup.put("javax/swing/event", Classification.UI);
+		lookup.put("javax/swing/filechooser", Classification.UI);
+		lookup.put("javax/swing/plaf", Classification.UI);
+		lookup.put("javax/swing/plaf/basic", Classification.UI);
+		lookup.put("javax/swing/plaf/metal", Classification.UI);
+		lookup.put("javax/swing/plaf/multi", Classification.UI);
+		lookup.put("javax/swing/plaf/nimbus", Classification.UI);
+		lookup.put("javax/swing/plaf/synth", Classification.UI);
+		lookup.put("javax/swing/table", Classification.UI);
+		lookup.put("javax/swing/text", Classification.UI);
+		lookup.put("javax/swing/text/html", Classification.UI);
+		lookup.put("javax/swing/text/html/parser", Classification.UI);
+		lookup.put("javax/swing/text/rtf", Classification.UI);
+		lookup.put("javax/swing/tree", Classification.UI);
+		lookup.put("javax/swing/undo", Classification.UI);
+		lookup.put("javax/xml/crypto", Classification.SECURITY);
+		lookup.put("javax/xml/crypto/dom", Classification.SECURITY);
+		lookup.put("javax/xml/crypto/dsig", Classification.SECURITY);
+		lookup.put("javax/xml/crypto/dsig/dom", Classification.SECURITY);
+		lookup.put("javax/xml/crypto/dsig/keyinfo", Classification.SECURITY);
+		lookup.put("javax/xml/crypto/dsig/spec", Classification.SECURITY);
 	}
 }
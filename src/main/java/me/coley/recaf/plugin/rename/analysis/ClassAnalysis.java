@@ -0,0 +1,60 @@
+package me.coley.recaf.plugin.rename.analysis;
+
+/**
+ * Result of analyzing a class's purpose, independent of any classification threshold.
+ *
+ * @author Matt Coley
+ */
+public class ClassAnalysis {
+	private final double[] features;
+	private final Classification classification;
+	private final double probability;
+
+	/**
+	 * @param features
+	 * 		Normalized feature counts, ordered by {@link ClassDataCollector#LABELS}.
+	 * @param classification
+	 * 		Most likely classification.
+	 * @param probability
+	 * 		Probability of the classification.
+	 */
+	public ClassAnalysis(double[] features, Classification classification, double probability) {
+		this.features = features;
+		this.classification = classification;
+		this.probability = probability;
+	}
+
+	/**
+	 * @param classificationThreshold
+	 * 		The threshold that must be met for a classification to be made.
+	 * 		If not met, we re-label it as {@link Classification#MISC}.
+	 *
+	 * @return Prediction of the class's use case.
+	 */
+	public Classification classify(double classificationThreshold) {
+		if (probability <= classificationThreshold)
+			return Classification.MISC;
+		return classification;
+	}
+
+	/**
+	 * @return Normalized feature counts, ordered by {@link ClassDataCollector#LABELS}.
+	 */
+	public double[] getFeatures() {
+		return features;
+	}
+
+	/**
+	 * @return Most likely classification.
+	 */
+	public Classification getClassification() {
+		return classification;
+	}
+
+	/**
+	 * @return Probability of the classification.
+	 */
+	public double getProbability() {
+		return probability;
+	}
+}
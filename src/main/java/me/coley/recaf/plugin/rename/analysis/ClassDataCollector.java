@@ -2,19 +2,21 @@ package me.coley.recaf.plugin.rename.analysis;
 
 import me.coley.recaf.Recaf;
 import me.coley.recaf.util.AccessFlag;
-import me.coley.recaf.util.Log;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.FieldVisitor;
 import org.objectweb.asm.MethodVisitor;
-import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TypeInsnNode;
 import org.tribuo.Example;
 import org.tribuo.classification.Label;
 import org.tribuo.impl.ArrayExample;
 
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
 
 /**
  * Class visitor to collect known type references.
@@ -34,33 +36,84 @@ public class ClassDataCollector extends ClassVisitor {
 			COL_N_UI, COL_N_IO, COL_N_NET, COL_N_SECURITY, COL_N_BYTECODE,
 			COL_N_NATIVE, COL_N_DATABASE, COL_N_DISTRIBUTED
 	};
-	private static final Set<String> uncategorizedClasses = new HashSet<>();
-	private final double[] counts = new double[LABELS.length];
-	private final Map<String, Classification> packageLookup;
+	private final int[] counts = new int[LABELS.length];
+	private final PackageTrie packageLookup;
+	private final TypeDiagnostics diagnostics;
 
-	public ClassDataCollector(Map<String, Classification> packageLookup) {
+	/**
+	 * @param packageLookup
+	 * 		Lookup of package classifications.
+	 * @param diagnostics
+	 * 		Diagnostics to record uncategorized type references in. May be {@code null}.
+	 */
+	public ClassDataCollector(PackageTrie packageLookup, TypeDiagnostics diagnostics) {
 		super(Recaf.ASM_VERSION);
 		this.packageLookup = packageLookup;
+		this.diagnostics = diagnostics;
+	}
+
+	/**
+	 * Collect type references by walking the tree of the given class directly.
+	 * Yields the same counts as passing a collector to {@link ClassNode#accept(ClassVisitor)},
+	 * without the visitor dispatch or any allocations per instruction.
+	 *
+	 * @param node
+	 * 		Class to collect type references of.
+	 * @param packageLookup
+	 * 		Lookup of package classifications.
+	 * @param diagnostics
+	 * 		Diagnostics to record uncategorized type references in. May be {@code null}.
+	 *
+	 * @return Collector holding the counts of the class.
+	 */
+	public static ClassDataCollector collect(ClassNode node, PackageTrie packageLookup, TypeDiagnostics diagnostics) {
+		ClassDataCollector collector = new ClassDataCollector(packageLookup, diagnostics);
+		collector.collect(node);
+		return collector;
+	}
+
+	private void collect(ClassNode node) {
+		if (node.interfaces != null)
+			for (String itf : node.interfaces)
+				onInternalName(itf, 40);
+		if (node.superName != null)
+			onInternalName(node.superName, 50);
+		for (FieldNode field : node.fields)
+			onDescriptor(field.desc, 5);
+		for (MethodNode method : node.methods) {
+			if (AccessFlag.isNative(method.access))
+				counts[Classification.NATIVE.ordinal()] += 15;
+			for (AbstractInsnNode insn = method.instructions.getFirst(); insn != null; insn = insn.getNext()) {
+				switch (insn.getType()) {
+					case AbstractInsnNode.FIELD_INSN:
+						onInternalName(((FieldInsnNode) insn).owner, 1);
+						break;
+					case AbstractInsnNode.METHOD_INSN:
+						onInternalName(((MethodInsnNode) insn).owner, 1);
+						break;
+					case AbstractInsnNode.TYPE_INSN:
+						onTypeInsn(((TypeInsnNode) insn).desc);
+						break;
+					default:
+						break;
+				}
+			}
+		}
 	}
 
 	@Override
 	public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
 		// Add type references for interfaces
-		for (String itf : interfaces) {
-			Type type = Type.getObjectType(itf);
-			onTypeReference(type, 40);
-		}
+		for (String itf : interfaces)
+			onInternalName(itf, 40);
 		// Add type references for parent type
-		if (superName != null) {
-			Type type = Type.getObjectType(superName);
-			onTypeReference(type, 50);
-		}
+		if (superName != null)
+			onInternalName(superName, 50);
 	}
 
 	@Override
 	public FieldVisitor visitField(int acc, String name, String desc, String s, Object v) {
-		Type type = Type.getType(desc);
-		onTypeReference(type, 5);
+		onDescriptor(desc, 5);
 		return null;
 	}
 
@@ -74,61 +127,90 @@ public class ClassDataCollector extends ClassVisitor {
 	}
 
 	/**
-	 * Add a type reference with the default weight, {@code 1.0}.
+	 * Add a type reference given as an internal name.
 	 *
-	 * @param type
-	 * 		Type visited.
+	 * @param name
+	 * 		Internal name. Array types are skipped.
+	 * @param weight
+	 * 		Weight to add.
 	 */
-	private void onTypeReference(Type type) {
-		onTypeReference(type, 1);
+	private void onInternalName(String name, int weight) {
+		// Skip non-objects
+		if (name.charAt(0) == '[')
+			return;
+		onTypeReference(name, 0, name.length(), weight);
 	}
 
 	/**
-	 * Add a type reference with a given weight.
+	 * Add a type reference given as a type descriptor.
 	 *
-	 * @param type
-	 * 		Type visited.
+	 * @param desc
+	 * 		Type descriptor. Array and primitive types are skipped.
 	 * @param weight
 	 * 		Weight to add.
 	 */
-	private void onTypeReference(Type type, double weight) {
+	private void onDescriptor(String desc, int weight) {
 		// Skip non-objects
-		if (type.getSort() < Type.OBJECT)
+		if (desc.charAt(0) != 'L')
 			return;
-		String internalName = type.getInternalName();
-		int category = categorize(internalName);
-		if (category >= 0) {
-			counts[category] += weight;
-		} else if (!uncategorizedClasses.contains(internalName)) {
-			uncategorizedClasses.add(internalName);
-			Log.warn("Type reference '{}' has no categorization!", internalName);
-		}
+		onTypeReference(desc, 1, desc.length() - 1, weight);
+	}
+
+	/**
+	 * Add a type reference from a type instruction, such as {@code new XYZ} or {@code instanceof XYZ}.
+	 *
+	 * @param type
+	 * 		Internal name, or array descriptor, in which case the element type is used.
+	 */
+	private void onTypeInsn(String type) {
+		// Handle array types (which are not given as the expected internal format)
+		int start = 0;
+		while (type.charAt(start) == '[')
+			start++;
+		if (start == 0)
+			onTypeReference(type, 0, type.length(), 1);
+		else if (type.charAt(start) == 'L')
+			onTypeReference(type, start + 1, type.length() - 1, 1);
 	}
 
 	/**
-	 * @param internalName
-	 * 		Internal class name.
+	 * Add a type reference with a given weight.
 	 *
-	 * @return Index in {@link #counts}/{@link #LABELS} the type correlates to.
+	 * @param text
+	 * 		Text containing the internal name of the type.
+	 * @param start
+	 * 		Start index of the internal name, inclusive.
+	 * @param end
+	 * 		End index of the internal name, exclusive.
+	 * @param weight
+	 * 		Weight to add.
 	 */
-	private int categorize(String internalName) {
-		int lastPkgIdx = internalName.lastIndexOf('/');
-		// Skip if no package
-		if (lastPkgIdx == -1)
-			return -1;
-		// Lookup package to known type.
-		String packageName = internalName.substring(0, lastPkgIdx);
-		Classification classification = packageLookup.get(packageName);
-		if (classification != null)
-			return classification.ordinal();
-		return -1;
+	private void onTypeReference(String text, int start, int end, int weight) {
+		Classification classification = packageLookup.lookup(text, start, end);
+		if (classification != null) {
+			// Misc has no column in the features
+			if (classification.ordinal() < counts.length)
+				counts[classification.ordinal()] += weight;
+		} else if (diagnostics != null) {
+			diagnostics.record(text, start, end);
+		}
 	}
 
 	/**
 	 * @return Build the example from the label/label-counts.
 	 */
 	public Example<Label> build() {
-		return new ArrayExample<>(null, LABELS, normalize(counts));
+		return new ArrayExample<>(null, LABELS, getFeatures());
+	}
+
+	/**
+	 * @return Normalized label-counts.
+	 */
+	public double[] getFeatures() {
+		double[] features = new double[counts.length];
+		for (int i = 0; i < counts.length; i++)
+			features[i] = counts[i];
+		return normalize(features);
 	}
 
 	public static double[] normalize(double[] in) {
@@ -150,30 +232,18 @@ public class ClassDataCollector extends ClassVisitor {
 
 		@Override
 		public void visitFieldInsn(int op, String owner, String name, String desc) {
-			onTypeReference(Type.getObjectType(owner));
+			onInternalName(owner, 1);
 		}
 
 		@Override
 		public void visitMethodInsn(int op, String owner, String name, String desc, boolean itf) {
-			onTypeReference(Type.getObjectType(owner));
+			onInternalName(owner, 1);
 		}
 
 		@Override
 		public void visitTypeInsn(int op, String type) {
-			super.visitTypeInsn(op, type);
-			// Handle array types (which are not given as the expected internal format)
-			if (type.charAt(0) == '[') {
-				Type arrType = Type.getType(type);
-				while (arrType.getSort() == Type.ARRAY)
-					arrType = arrType.getElementType();
-				// If it's a reference type, set the type string and continue
-				if (arrType.getSort() == Type.OBJECT)
-					type = arrType.getInternalName();
-				else
-					return;
-			}
 			// Record the type (used in new XYX / instanceof XYZ)
-			onTypeReference(Type.getObjectType(type));
+			onTypeInsn(type);
 		}
 	}
 }
@@ -0,0 +1,178 @@
+package me.coley.recaf.plugin.rename.analysis;
+
+import me.coley.recaf.Recaf;
+import me.coley.recaf.util.Log;
+import org.tribuo.classification.mnb.MultinomialNaiveBayesModel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Storage for trained models, so that the model does not need to be re-trained every session.
+ * Models are keyed by a hash of the resources used to train them. A model shipped in the plugin jar
+ * is checked first, then the model cached in the Recaf directory.
+ *
+ * @author Matt Coley
+ */
+public class ModelCache {
+	private static final String BUNDLED_MODEL = "/bayes-model.bin";
+	private static final String CACHE_DIR = "auto-renamer";
+	private static final String CACHE_FILE = "bayes-model.bin";
+
+	/**
+	 * Writes a trained model to the given path, to be bundled in the plugin jar as {@value #BUNDLED_MODEL}.
+	 * Run by the Maven build once the classes are compiled, see the {@code bundle-bayes-model} execution.
+	 * Exits with a non-zero status if the model cannot be written, so the build fails.
+	 *
+	 * @param args
+	 * 		Output path, such as {@code target/classes/bayes-model.bin}.
+	 */
+	public static void main(String[] args) {
+		try {
+			BayesWrapper.init();
+			write(Paths.get(args[0]), computeKey(), BayesWrapper.getModel());
+		} catch (Exception ex) {
+			Log.error(ex, "Failed to write naive bayes model to: {}", args.length > 0 ? args[0] : "<no path given>");
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * @return Hash of the training resources and trainer settings.
+	 *
+	 * @throws IOException
+	 * 		When the resources cannot be read.
+	 */
+	public static String computeKey() throws IOException {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(BayesWrapper.getTrainerSettings().getBytes(StandardCharsets.UTF_8));
+			update(digest, "/training.csv");
+			update(digest, "/packages.csv");
+			StringBuilder sb = new StringBuilder();
+			for (byte b : digest.digest())
+				sb.append(String.format("%02x", b));
+			return sb.toString();
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IOException("SHA-256 not supported", ex);
+		}
+	}
+
+	/**
+	 * @param key
+	 * 		Expected model key, see {@link #computeKey()}.
+	 *
+	 * @return Bundled or cached model matching the key, or {@code null} if none exists.
+	 */
+	public static MultinomialNaiveBayesModel load(String key) {
+		URL bundled = ModelCache.class.getResource(BUNDLED_MODEL);
+		if (bundled != null) {
+			try (InputStream in = bundled.openStream()) {
+				MultinomialNaiveBayesModel model = read(in, key);
+				if (model != null) {
+					Log.debug("Loaded bundled naive bayes model");
+					return model;
+				}
+			} catch (Exception ex) {
+				Log.warn("Failed to read bundled naive bayes model: {}", ex.getMessage());
+			}
+		}
+		Path path = getCachePath();
+		if (Files.isRegularFile(path)) {
+			try (InputStream in = Files.newInputStream(path)) {
+				MultinomialNaiveBayesModel model = read(in, key);
+				if (model != null) {
+					Log.debug("Loaded cached naive bayes model: {}", path);
+					return model;
+				}
+			} catch (Exception ex) {
+				Log.warn("Failed to read cached naive bayes model: {}", ex.getMessage());
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param key
+	 * 		Model key, see {@link #computeKey()}.
+	 * @param model
+	 * 		Trained model to cache.
+	 */
+	public static void save(String key, MultinomialNaiveBayesModel model) {
+		try {
+			write(getCachePath(), key, model);
+		} catch (IOException ex) {
+			Log.warn("Failed to cache naive bayes model: {}", ex.getMessage());
+		}
+	}
+
+	private static MultinomialNaiveBayesModel read(InputStream in, String key) throws Exception {
+		try (ObjectInputStream ois = new PluginObjectInputStream(in)) {
+			// Skip models trained from other resources
+			if (!key.equals(ois.readUTF()))
+				return null;
+			return (MultinomialNaiveBayesModel) ois.readObject();
+		}
+	}
+
+	private static void write(Path path, String key, MultinomialNaiveBayesModel model) throws IOException {
+		Files.createDirectories(path.toAbsolutePath().getParent());
+		// Write to a temporary file first so that concurrent sessions never read a partial model
+		Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), CACHE_FILE, ".tmp");
+		try {
+			try (ObjectOutputStream oos = new ObjectOutputStream(Files.newOutputStream(temp))) {
+				oos.writeUTF(key);
+				oos.writeObject(model);
+			}
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	private static Path getCachePath() {
+		return Recaf.getDirectory().resolve(CACHE_DIR).resolve(CACHE_FILE);
+	}
+
+	private static void update(MessageDigest digest, String resource) throws IOException {
+		InputStream stream = ModelCache.class.getResourceAsStream(resource);
+		if (stream == null)
+			throw new IOException("Resource not found: " + resource);
+		byte[] buffer = new byte[8192];
+		try (InputStream in = stream) {
+			int read;
+			while ((read = in.read(buffer)) != -1)
+				digest.update(buffer, 0, read);
+		}
+	}
+
+	/**
+	 * Object stream that resolves classes from the plugin's class loader,
+	 * which is not guaranteed to be the default loader used for deserialization.
+	 */
+	private static class PluginObjectInputStream extends ObjectInputStream {
+		private PluginObjectInputStream(InputStream in) throws IOException {
+			super(in);
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+			try {
+				return Class.forName(desc.getName(), false, ModelCache.class.getClassLoader());
+			} catch (ClassNotFoundException ex) {
+				return super.resolveClass(desc);
+			}
+		}
+	}
+}
@@ -0,0 +1,181 @@
+package me.coley.recaf.plugin.rename.analysis;
+
+import com.oracle.labs.mlrg.olcut.util.Pair;
+import org.tribuo.classification.Label;
+import org.tribuo.classification.mnb.MultinomialNaiveBayesModel;
+import org.tribuo.impl.ArrayExample;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scores class features against the parameters of a trained {@link MultinomialNaiveBayesModel}.
+ * The parameters are copied into a flat array, so scoring does not allocate.
+ * Tribuo is still used to train the model, and as the reference the scorer is
+ * {@link #matches(MultinomialNaiveBayesModel) verified} against.
+ *
+ * @author Matt Coley
+ */
+public class NaiveBayesScorer {
+	private static final double TOLERANCE = 1e-6;
+	// Feature log-probabilities, indexed by [label * featureCount + feature column]
+	private final double[] logProbs;
+	private final Classification[] classifications;
+	private final int labelCount;
+	private final int featureCount;
+
+	private NaiveBayesScorer(double[] logProbs, Classification[] classifications, int featureCount) {
+		this.logProbs = logProbs;
+		this.classifications = classifications;
+		this.labelCount = classifications.length;
+		this.featureCount = featureCount;
+	}
+
+	/**
+	 * @param model
+	 * 		Trained model.
+	 *
+	 * @return Scorer using the parameters of the model.
+	 */
+	public static NaiveBayesScorer fromModel(MultinomialNaiveBayesModel model) {
+		String[] columns = ClassDataCollector.LABELS;
+		Map<String, List<Pair<String, Double>>> features = model.getTopFeatures(-1);
+		double[] logProbs = new double[features.size() * columns.length];
+		Classification[] classifications = new Classification[features.size()];
+		int label = 0;
+		for (Map.Entry<String, List<Pair<String, Double>>> entry : features.entrySet()) {
+			classifications[label] = BayesWrapper.toClassification(entry.getKey());
+			for (Pair<String, Double> feature : entry.getValue()) {
+				for (int c = 0; c < columns.length; c++) {
+					if (columns[c].equals(feature.getA())) {
+						logProbs[label * columns.length + c] = feature.getB();
+						break;
+					}
+				}
+			}
+			label++;
+		}
+		return new NaiveBayesScorer(logProbs, classifications, columns.length);
+	}
+
+	/**
+	 * @param classificationThreshold
+	 * 		The threshold that must be met for a classification to be made.
+	 * 		If not met, we re-label it as {@link Classification#MISC}.
+	 * @param features
+	 * 		Normalized feature counts, ordered by {@link ClassDataCollector#LABELS}.
+	 *
+	 * @return Prediction of the class's use case.
+	 */
+	public Classification classify(double classificationThreshold, double[] features) {
+		int best = bestLabel(features);
+		if (best < 0 || probability(features, best) <= classificationThreshold)
+			return Classification.MISC;
+		return classifications[best];
+	}
+
+	/**
+	 * @param features
+	 * 		Normalized feature counts, ordered by {@link ClassDataCollector#LABELS}.
+	 *
+	 * @return Analysis of the features, holding the most likely classification and its probability.
+	 */
+	public ClassAnalysis analyze(double[] features) {
+		int best = bestLabel(features);
+		if (best < 0)
+			return new ClassAnalysis(features, Classification.MISC, 0);
+		return new ClassAnalysis(features, classifications[best], probability(features, best));
+	}
+
+	/**
+	 * Check the scorer yields the same predictions as the model, on a set of generated inputs.
+	 *
+	 * @param model
+	 * 		Model to compare against.
+	 *
+	 * @return {@code true} when the best label and its score match the model for every input.
+	 */
+	public boolean matches(MultinomialNaiveBayesModel model) {
+		String[] columns = ClassDataCollector.LABELS;
+		for (double[] input : createSamples()) {
+			Label expected = model.predict(new ArrayExample<>(null, columns, input)).getOutput();
+			int best = bestLabel(input);
+			if (best < 0 || classifications[best] != BayesWrapper.toClassification(expected.getLabel()))
+				return false;
+			if (Math.abs(probability(input, best) - expected.getScore()) > TOLERANCE)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @param features
+	 * 		Feature counts.
+	 * @param label
+	 * 		Label index.
+	 *
+	 * @return Log-probability of the features under the label.
+	 */
+	private double score(double[] features, int label) {
+		int offset = label * featureCount;
+		double score = 0;
+		for (int c = 0; c < featureCount; c++)
+			score += features[c] * logProbs[offset + c];
+		return score;
+	}
+
+	/**
+	 * @param features
+	 * 		Feature counts.
+	 *
+	 * @return Index of the label with the highest score.
+	 */
+	private int bestLabel(double[] features) {
+		int best = -1;
+		double bestScore = Double.NEGATIVE_INFINITY;
+		for (int l = 0; l < labelCount; l++) {
+			double score = score(features, l);
+			if (score > bestScore) {
+				bestScore = score;
+				best = l;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @param features
+	 * 		Feature counts.
+	 * @param label
+	 * 		Label index.
+	 *
+	 * @return Probability of the label, relative to the other labels.
+	 */
+	private double probability(double[] features, int label) {
+		double labelScore = score(features, label);
+		double sum = 0;
+		for (int l = 0; l < labelCount; l++)
+			sum += Math.exp(score(features, l) - labelScore);
+		return 1.0 / sum;
+	}
+
+	/**
+	 * @return Inputs covering each feature on its own, pairs of features, and all features at once.
+	 */
+	private double[][] createSamples() {
+		int pairs = featureCount * (featureCount - 1) / 2;
+		double[][] samples = new double[featureCount + pairs + 1][featureCount];
+		int i = 0;
+		for (int c = 0; c < featureCount; c++)
+			samples[i++][c] = 1;
+		for (int a = 0; a < featureCount; a++) {
+			for (int b = a + 1; b < featureCount; b++) {
+				samples[i][a] = 0.75;
+				samples[i++][b] = 0.25;
+			}
+		}
+		for (int c = 0; c < featureCount; c++)
+			samples[i][c] = 1.0 / featureCount;
+		return samples;
+	}
+}
@@ -0,0 +1,166 @@
+package me.coley.recaf.plugin.rename.analysis;
+
+/**
+ * Lookup of package classifications, stored as a trie of package name segments.
+ * Lookups match the longest known package prefix of an internal name, so unlisted sub-packages
+ * such as {@code akka/actor/dungeon} inherit the classification of {@code akka/actor}.
+ * Lookups compare regions of the given name in place and do not allocate.
+ *
+ * @author Matt Coley
+ */
+public class PackageTrie {
+	private final Node root = new Node(null, 0);
+	private int size;
+
+	/**
+	 * @param packageName
+	 * 		Internal package name, such as {@code java/awt}.
+	 * @param classification
+	 * 		Classification of classes in the package.
+	 */
+	public void put(String packageName, Classification classification) {
+		Node node = root;
+		int start = 0;
+		int len = packageName.length();
+		while (start < len) {
+			int end = packageName.indexOf('/', start);
+			if (end == -1)
+				end = len;
+			if (end > start)
+				node = node.getOrCreate(packageName, start, end);
+			start = end + 1;
+		}
+		if (node != root) {
+			if (node.classification == null)
+				size++;
+			node.classification = classification;
+		}
+	}
+
+	/**
+	 * @param internalName
+	 * 		Internal class name, such as {@code java/awt/Color}.
+	 *
+	 * @return Classification of the longest known package prefix of the class,
+	 * or {@code null} if the class is in no known package.
+	 */
+	public Classification lookup(String internalName) {
+		return lookup(internalName, 0, internalName.length());
+	}
+
+	/**
+	 * @param text
+	 * 		Text containing an internal class name.
+	 * @param start
+	 * 		Start index of the name in the text, inclusive.
+	 * @param end
+	 * 		End index of the name in the text, exclusive.
+	 *
+	 * @return Classification of the longest known package prefix of the class,
+	 * or {@code null} if the class is in no known package.
+	 */
+	public Classification lookup(String text, int start, int end) {
+		Node node = root;
+		Classification match = null;
+		// The last segment is the simple class name, so only segments followed by a '/' are walked
+		int segEnd;
+		while ((segEnd = indexOf(text, '/', start, end)) != -1) {
+			node = node.get(text, start, segEnd);
+			if (node == null)
+				break;
+			if (node.classification != null)
+				match = node.classification;
+			start = segEnd + 1;
+		}
+		return match;
+	}
+
+	/**
+	 * @return Number of classified packages.
+	 */
+	public int size() {
+		return size;
+	}
+
+	private static int indexOf(String text, char c, int start, int end) {
+		for (int i = start; i < end; i++)
+			if (text.charAt(i) == c)
+				return i;
+		return -1;
+	}
+
+	private static int hash(String text, int start, int end) {
+		int h = 0;
+		for (int i = start; i < end; i++)
+			h = 31 * h + text.charAt(i);
+		// Spread higher bits into the lower bits used for indexing
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Trie node for a single package segment.
+	 * Children are held in an open addressing table keyed by the segment hash.
+	 */
+	private static class Node {
+		private static final int INITIAL_CAPACITY = 4;
+		private final String segment;
+		private final int hash;
+		private Node[] children;
+		private int childCount;
+		private Classification classification;
+
+		private Node(String segment, int hash) {
+			this.segment = segment;
+			this.hash = hash;
+		}
+
+		private boolean matches(String text, int start, int end, int hash) {
+			int len = end - start;
+			return this.hash == hash && segment.length() == len && segment.regionMatches(0, text, start, len);
+		}
+
+		private Node get(String text, int start, int end) {
+			if (children == null)
+				return null;
+			int h = hash(text, start, end);
+			int mask = children.length - 1;
+			for (int i = h & mask; ; i = (i + 1) & mask) {
+				Node child = children[i];
+				if (child == null)
+					return null;
+				if (child.matches(text, start, end, h))
+					return child;
+			}
+		}
+
+		private Node getOrCreate(String text, int start, int end) {
+			Node existing = get(text, start, end);
+			if (existing != null)
+				return existing;
+			if (children == null)
+				children = new Node[INITIAL_CAPACITY];
+			else if ((childCount + 1) * 2 > children.length)
+				resize();
+			Node child = new Node(text.substring(start, end), hash(text, start, end));
+			insert(children, child);
+			childCount++;
+			return child;
+		}
+
+		private void resize() {
+			Node[] table = new Node[children.length * 2];
+			for (Node child : children)
+				if (child != null)
+					insert(table, child);
+			children = table;
+		}
+
+		private static void insert(Node[] table, Node child) {
+			int mask = table.length - 1;
+			int i = child.hash & mask;
+			while (table[i] != null)
+				i = (i + 1) & mask;
+			table[i] = child;
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package me.coley.recaf.plugin.rename.analysis;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads text resources directly out of the plugin's classpath, one line at a time.
+ *
+ * @author Matt Coley
+ */
+public class ResourceLoader {
+	/**
+	 * @param path
+	 * 		Path of resource in the classpath.
+	 * @param handler
+	 * 		Handler to call with each non-empty line.
+	 *
+	 * @throws IOException
+	 * 		When the resource does not exist or cannot be read.
+	 */
+	public static void forEachLine(String path, LineHandler handler) throws IOException {
+		InputStream in = ResourceLoader.class.getResourceAsStream(path);
+		if (in == null)
+			throw new IOException("Resource not found: " + path);
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (!line.isEmpty())
+					handler.handle(line);
+			}
+		}
+	}
+
+	/**
+	 * Handler for lines of a resource.
+	 */
+	public interface LineHandler {
+		/**
+		 * @param line
+		 * 		Line content, without line terminators.
+		 *
+		 * @throws IOException
+		 * 		When the line cannot be handled.
+		 */
+		void handle(String line) throws IOException;
+	}
+}
@@ -0,0 +1,168 @@
+package me.coley.recaf.plugin.rename.analysis;
+
+import me.coley.recaf.util.Log;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts type references that have no categorization, grouped by package.
+ * Safe to update from multiple threads. The number of tracked packages is bounded,
+ * references to packages beyond the bound are only counted in the total.
+ * <br>
+ * Packages are looked up by a hash of their range in the referencing text, so recording a reference to a known
+ * package does not allocate. The package name is only copied out of the text when the package is first seen.
+ *
+ * @author Matt Coley
+ */
+public class TypeDiagnostics {
+	private static final String DEFAULT_PACKAGE = "<default>";
+	private static final int MAX_PACKAGES = 1024;
+	// Open addressing table at most half full, entries are only added until cleared
+	private static final int CAPACITY = MAX_PACKAGES * 2;
+	private volatile AtomicReferenceArray<PackageCount> packages = new AtomicReferenceArray<>(CAPACITY);
+	private final LongAdder defaultPackage = new LongAdder();
+	private final LongAdder total = new LongAdder();
+	private final LongAdder untracked = new LongAdder();
+	private int packageCount;
+
+	/**
+	 * @param text
+	 * 		Text containing the internal name of the uncategorized type.
+	 * @param start
+	 * 		Start index of the internal name, inclusive.
+	 * @param end
+	 * 		End index of the internal name, exclusive.
+	 */
+	public void record(String text, int start, int end) {
+		total.increment();
+		int lastPkgIdx = text.lastIndexOf('/', end - 1);
+		if (lastPkgIdx < start) {
+			defaultPackage.increment();
+			return;
+		}
+		int hash = hash(text, start, lastPkgIdx);
+		AtomicReferenceArray<PackageCount> table = packages;
+		PackageCount count = find(table, hash, text, start, lastPkgIdx);
+		if (count == null) {
+			count = insert(table, hash, text, start, lastPkgIdx);
+			if (count == null) {
+				untracked.increment();
+				return;
+			}
+		}
+		count.count.increment();
+	}
+
+	/**
+	 * @return Entry of the package, or {@code null} if the package is not tracked yet.
+	 */
+	private static PackageCount find(AtomicReferenceArray<PackageCount> table, int hash,
+									 String text, int start, int end) {
+		int mask = CAPACITY - 1;
+		for (int i = hash & mask; ; i = (i + 1) & mask) {
+			PackageCount entry = table.get(i);
+			if (entry == null)
+				return null;
+			if (entry.matches(hash, text, start, end))
+				return entry;
+		}
+	}
+
+	/**
+	 * @return Entry of the package, or {@code null} if the bound of tracked packages was reached.
+	 */
+	private synchronized PackageCount insert(AtomicReferenceArray<PackageCount> table, int hash,
+											 String text, int start, int end) {
+		// The table may have been cleared since it was read
+		if (table != packages)
+			return null;
+		int mask = CAPACITY - 1;
+		int i = hash & mask;
+		for (PackageCount entry; (entry = table.get(i)) != null; i = (i + 1) & mask) {
+			// Another thread may have added the package since the lookup
+			if (entry.matches(hash, text, start, end))
+				return entry;
+		}
+		if (packageCount >= MAX_PACKAGES)
+			return null;
+		PackageCount entry = new PackageCount(text.substring(start, end), hash);
+		table.set(i, entry);
+		packageCount++;
+		return entry;
+	}
+
+	private static int hash(String text, int start, int end) {
+		int h = 0;
+		for (int i = start; i < end; i++)
+			h = 31 * h + text.charAt(i);
+		// Spread the high bits, since only the low bits pick the slot
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Log a single summary of uncategorized references.
+	 *
+	 * @param limit
+	 * 		Number of packages to list, ordered by reference count.
+	 */
+	public void report(int limit) {
+		long totalCount = total.sum();
+		if (totalCount == 0)
+			return;
+		List<Map.Entry<String, Long>> entries = new ArrayList<>();
+		AtomicReferenceArray<PackageCount> table = packages;
+		for (int i = 0; i < CAPACITY; i++) {
+			PackageCount entry = table.get(i);
+			if (entry != null)
+				entries.add(new AbstractMap.SimpleEntry<>(entry.name, entry.count.sum()));
+		}
+		long defaultCount = defaultPackage.sum();
+		if (defaultCount > 0)
+			entries.add(new AbstractMap.SimpleEntry<>(DEFAULT_PACKAGE, defaultCount));
+		entries.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < Math.min(limit, entries.size()); i++) {
+			Map.Entry<String, Long> entry = entries.get(i);
+			sb.append("\n - ").append(entry.getKey()).append(": ").append(entry.getValue());
+		}
+		long untrackedCount = untracked.sum();
+		if (untrackedCount > 0)
+			sb.append("\n - (other packages): ").append(untrackedCount);
+		Log.warn("{} type references in {} packages have no categorization, top packages:{}",
+				totalCount, entries.size(), sb);
+	}
+
+	/**
+	 * Reset all counts.
+	 */
+	public synchronized void clear() {
+		packages = new AtomicReferenceArray<>(CAPACITY);
+		packageCount = 0;
+		defaultPackage.reset();
+		total.reset();
+		untracked.reset();
+	}
+
+	/**
+	 * Reference count of a single package.
+	 */
+	private static class PackageCount {
+		private final LongAdder count = new LongAdder();
+		private final String name;
+		private final int hash;
+
+		private PackageCount(String name, int hash) {
+			this.name = name;
+			this.hash = hash;
+		}
+
+		private boolean matches(int hash, String text, int start, int end) {
+			return this.hash == hash && name.length() == end - start && text.regionMatches(start, name, 0, end - start);
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package me.coley.recaf.plugin.rename.mapping;
+
+import me.coley.recaf.util.StringUtil;
+
+/**
+ * Supported formats for saving and loading generated mappings.
+ *
+ * @author Matt Coley
+ */
+public enum MappingFormat {
+	PROGUARD,
+	TINY_V2,
+	SRG;
+
+	@Override
+	public String toString() {
+		switch (this) {
+			case PROGUARD:
+				return "ProGuard";
+			case TINY_V2:
+				return "Tiny v2";
+			case SRG:
+				return "SRG";
+			default:
+				return StringUtil.toString(this);
+		}
+	}
+
+	/**
+	 * @return File extension commonly used by the format, without the leading {@code '.'}.
+	 */
+	public String getExtension() {
+		switch (this) {
+			case PROGUARD:
+				return "txt";
+			case TINY_V2:
+				return "tiny";
+			case SRG:
+				return "srg";
+			default:
+				throw new UnsupportedOperationException("Unsupported mapping format: " + name());
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package me.coley.recaf.plugin.rename.mapping;
+
+/**
+ * Utilities for the keys of generated mappings. Keys follow the format used by Recaf's mappings:
+ * <ul>
+ *     <li>Classes: {@code owner}</li>
+ *     <li>Fields: {@code owner.name desc}</li>
+ *     <li>Methods: {@code owner.name(desc)ret}</li>
+ * </ul>
+ *
+ * @author Matt Coley
+ */
+public class MappingKeys {
+	/**
+	 * @param key
+	 * 		Mapping key.
+	 *
+	 * @return {@code true} when the key is for a class.
+	 */
+	public static boolean isClass(String key) {
+		return key.indexOf('.') < 0;
+	}
+
+	/**
+	 * @param key
+	 * 		Mapping key.
+	 *
+	 * @return {@code true} when the key is for a field.
+	 */
+	public static boolean isField(String key) {
+		return !isClass(key) && key.indexOf(' ') > 0;
+	}
+
+	/**
+	 * @param key
+	 * 		Mapping key.
+	 *
+	 * @return {@code true} when the key is for a method.
+	 */
+	public static boolean isMethod(String key) {
+		return !isClass(key) && key.indexOf(' ') < 0;
+	}
+
+	/**
+	 * @param key
+	 * 		Field or method mapping key.
+	 *
+	 * @return Internal name of the class declaring the member.
+	 */
+	public static String getOwner(String key) {
+		return key.substring(0, key.indexOf('.'));
+	}
+
+	/**
+	 * @param key
+	 * 		Field or method mapping key.
+	 *
+	 * @return Name of the member.
+	 */
+	public static String getName(String key) {
+		int end = key.indexOf(isField(key) ? ' ' : '(');
+		return key.substring(key.indexOf('.') + 1, end);
+	}
+
+	/**
+	 * @param key
+	 * 		Field or method mapping key.
+	 *
+	 * @return Descriptor of the member.
+	 */
+	public static String getDesc(String key) {
+		if (isField(key))
+			return key.substring(key.indexOf(' ') + 1);
+		return key.substring(key.indexOf('('));
+	}
+
+	/**
+	 * @param owner
+	 * 		Internal name of the class declaring the field.
+	 * @param name
+	 * 		Field name.
+	 * @param desc
+	 * 		Field descriptor.
+	 *
+	 * @return Field mapping key.
+	 */
+	public static String field(String owner, String name, String desc) {
+		return owner + "." + name + " " + desc;
+	}
+
+	/**
+	 * @param owner
+	 * 		Internal name of the class declaring the method.
+	 * @param name
+	 * 		Method name.
+	 * @param desc
+	 * 		Method descriptor.
+	 *
+	 * @return Method mapping key.
+	 */
+	public static String method(String owner, String name, String desc) {
+		return owner + "." + name + desc;
+	}
+}
@@ -0,0 +1,202 @@
+package me.coley.recaf.plugin.rename.mapping;
+
+import me.coley.recaf.util.Log;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * Reads mappings written by {@link MappingWriter}, or other tools using the {@link MappingFormat supported formats},
+ * one line at a time. Entries are passed on as they are read, using the keys described in {@link MappingKeys}.
+ *
+ * @author Matt Coley
+ */
+public class MappingReader {
+	/**
+	 * @param path
+	 * 		File to read from.
+	 * @param format
+	 * 		Format of the file.
+	 * @param fieldDescs
+	 * 		Lookup of a field's descriptor, given the owner and field name.
+	 * 		Used for formats that do not include field descriptors.
+	 * @param consumer
+	 * 		Consumer of read mapping keys and their mapped names.
+	 *
+	 * @return Number of read entries.
+	 *
+	 * @throws IOException
+	 * 		When the file cannot be read.
+	 */
+	public static int read(Path path, MappingFormat format, BiFunction<String, String, String> fieldDescs,
+						   BiConsumer<String, String> consumer) throws IOException {
+		int count = 0;
+		try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			String currentClass = null;
+			String line;
+			int lineNo = 0;
+			while ((line = reader.readLine()) != null) {
+				lineNo++;
+				if (line.trim().isEmpty())
+					continue;
+				try {
+					switch (format) {
+						case PROGUARD:
+							if (line.charAt(0) == '#')
+								continue;
+							if (!Character.isWhitespace(line.charAt(0))) {
+								currentClass = readProguardClass(line, consumer);
+								count++;
+							} else if (currentClass != null) {
+								readProguardMember(currentClass, line.trim(), consumer);
+								count++;
+							}
+							break;
+						case TINY_V2:
+							if (line.startsWith("c\t")) {
+								currentClass = readTinyClass(line, consumer);
+								count++;
+							} else if (currentClass != null && readTinyMember(currentClass, line, consumer)) {
+								count++;
+							}
+							break;
+						case SRG:
+							if (readSrg(line, fieldDescs, consumer))
+								count++;
+							break;
+						default:
+							throw new UnsupportedOperationException("Unsupported mapping format: " + format.name());
+					}
+				} catch (RuntimeException ex) {
+					Log.warn("Skipping malformed mapping on line {}: {}", lineNo, line);
+				}
+			}
+		}
+		return count;
+	}
+
+	private static String readProguardClass(String line, BiConsumer<String, String> consumer) {
+		int arrow = line.indexOf(" -> ");
+		String name = line.substring(0, arrow).trim().replace('.', '/');
+		String mapped = line.substring(arrow + 4, line.lastIndexOf(':')).trim().replace('.', '/');
+		if (!name.equals(mapped))
+			consumer.accept(name, mapped);
+		return name;
+	}
+
+	private static void readProguardMember(String owner, String line, BiConsumer<String, String> consumer) {
+		// Skip line number ranges, such as "1:5:"
+		while (!line.isEmpty() && Character.isDigit(line.charAt(0)))
+			line = line.substring(line.indexOf(':') + 1);
+		int arrow = line.indexOf(" -> ");
+		String mapped = line.substring(arrow + 4).trim();
+		String member = line.substring(0, arrow);
+		int space = member.indexOf(' ');
+		String type = member.substring(0, space);
+		int open = member.indexOf('(');
+		if (open < 0) {
+			String name = member.substring(space + 1);
+			consumer.accept(MappingKeys.field(owner, name, toDesc(type)), mapped);
+			return;
+		}
+		String name = member.substring(space + 1, open);
+		String args = member.substring(open + 1, member.indexOf(')'));
+		StringBuilder desc = new StringBuilder("(");
+		if (!args.isEmpty())
+			for (String arg : args.split(","))
+				desc.append(toDesc(arg.trim()));
+		desc.append(')').append(toDesc(type));
+		consumer.accept(MappingKeys.method(owner, name, desc.toString()), mapped);
+	}
+
+	private static String readTinyClass(String line, BiConsumer<String, String> consumer) {
+		String[] parts = line.split("\t");
+		if (!parts[1].equals(parts[2]))
+			consumer.accept(parts[1], parts[2]);
+		return parts[1];
+	}
+
+	private static boolean readTinyMember(String owner, String line, BiConsumer<String, String> consumer) {
+		// Members are at depth 1, following their class. Deeper lines are parameters and comments.
+		if (!line.startsWith("\tf\t") && !line.startsWith("\tm\t"))
+			return false;
+		String[] parts = line.split("\t");
+		String key = parts[1].equals("f") ?
+				MappingKeys.field(owner, parts[3], parts[2]) :
+				MappingKeys.method(owner, parts[3], parts[2]);
+		consumer.accept(key, parts[4]);
+		return true;
+	}
+
+	private static boolean readSrg(String line, BiFunction<String, String, String> fieldDescs,
+								   BiConsumer<String, String> consumer) {
+		String[] parts = line.trim().split(" ");
+		switch (parts[0]) {
+			case "CL:":
+				consumer.accept(parts[1], parts[2]);
+				return true;
+			case "FD:": {
+				String owner = parts[1].substring(0, parts[1].lastIndexOf('/'));
+				String name = parts[1].substring(parts[1].lastIndexOf('/') + 1);
+				String mapped = parts[2].substring(parts[2].lastIndexOf('/') + 1);
+				String desc = fieldDescs.apply(owner, name);
+				if (desc == null) {
+					Log.warn("Skipping mapping of unknown field: {}.{}", owner, name);
+					return false;
+				}
+				consumer.accept(MappingKeys.field(owner, name, desc), mapped);
+				return true;
+			}
+			case "MD:": {
+				String owner = parts[1].substring(0, parts[1].lastIndexOf('/'));
+				String name = parts[1].substring(parts[1].lastIndexOf('/') + 1);
+				String mapped = parts[3].substring(parts[3].lastIndexOf('/') + 1);
+				consumer.accept(MappingKeys.method(owner, name, parts[2]), mapped);
+				return true;
+			}
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * @param type
+	 * 		Java source type name, such as {@code java.lang.String[]}.
+	 *
+	 * @return Type descriptor.
+	 */
+	private static String toDesc(String type) {
+		StringBuilder sb = new StringBuilder();
+		while (type.endsWith("[]")) {
+			sb.append('[');
+			type = type.substring(0, type.length() - 2);
+		}
+		switch (type) {
+			case "void":
+				return sb.append('V').toString();
+			case "boolean":
+				return sb.append('Z').toString();
+			case "byte":
+				return sb.append('B').toString();
+			case "char":
+				return sb.append('C').toString();
+			case "short":
+				return sb.append('S').toString();
+			case "int":
+				return sb.append('I').toString();
+			case "long":
+				return sb.append('J').toString();
+			case "float":
+				return sb.append('F').toString();
+			case "double":
+				return sb.append('D').toString();
+			default:
+				return sb.append('L').append(type.replace('.', '/')).append(';').toString();
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package me.coley.recaf.plugin.rename.mapping;
+
+import java.util.Collection;
+import java.util.SortedMap;
+
+/**
+ * Mappings grouped by class, for {@link MappingWriter}. Members are requested one class at a time,
+ * so sources can build them on demand rather than holding a sorted copy of all mappings.
+ *
+ * @author Matt Coley
+ */
+public interface MappingSource {
+	/**
+	 * @return Names of classes that are mapped or have mapped members, sorted by name.
+	 */
+	Collection<String> getClassNames();
+
+	/**
+	 * @param name
+	 * 		Class name.
+	 *
+	 * @return Mapped name of the class, or {@code null} if only its members are mapped.
+	 */
+	String getClassMapping(String name);
+
+	/**
+	 * @param name
+	 * 		Class name.
+	 *
+	 * @return Mapped fields of the class, with keys as described in {@link MappingKeys}.
+	 */
+	SortedMap<String, String> getFieldMappings(String name);
+
+	/**
+	 * @param name
+	 * 		Class name.
+	 *
+	 * @return Mapped methods of the class, with keys as described in {@link MappingKeys}.
+	 */
+	SortedMap<String, String> getMethodMappings(String name);
+}
@@ -0,0 +1,210 @@
+package me.coley.recaf.plugin.rename.mapping;
+
+import org.objectweb.asm.Type;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Writes generated mappings to a file in one of the {@link MappingFormat supported formats}.
+ * Entries map the names of the input to the generated names, and are written class by class, in name order.
+ * Members are pulled from the {@link MappingSource} one class at a time, so only that class's entries are held.
+ *
+ * @author Matt Coley
+ */
+public class MappingWriter {
+	/**
+	 * @param path
+	 * 		File to write to.
+	 * @param format
+	 * 		Format to write in.
+	 * @param source
+	 * 		Mappings to write, grouped by class.
+	 *
+	 * @return Number of written entries.
+	 *
+	 * @throws IOException
+	 * 		When the file cannot be written to.
+	 */
+	public static int write(Path path, MappingFormat format, MappingSource source) throws IOException {
+		try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+			switch (format) {
+				case PROGUARD:
+					return writeProguard(writer, source);
+				case TINY_V2:
+					return writeTiny(writer, source);
+				case SRG:
+					return writeSrg(writer, source);
+				default:
+					throw new UnsupportedOperationException("Unsupported mapping format: " + format.name());
+			}
+		}
+	}
+
+	private static int writeProguard(BufferedWriter writer, MappingSource source) throws IOException {
+		int count = 0;
+		for (String name : source.getClassNames()) {
+			String mappedName = source.getClassMapping(name);
+			if (mappedName != null)
+				count++;
+			writer.write(name.replace('/', '.'));
+			writer.write(" -> ");
+			writer.write((mappedName == null ? name : mappedName).replace('/', '.'));
+			writer.write(':');
+			writer.newLine();
+			for (Map.Entry<String, String> field : source.getFieldMappings(name).entrySet()) {
+				String key = field.getKey();
+				writer.write("    ");
+				writer.write(Type.getType(MappingKeys.getDesc(key)).getClassName());
+				writer.write(' ');
+				writer.write(MappingKeys.getName(key));
+				writer.write(" -> ");
+				writer.write(field.getValue());
+				writer.newLine();
+				count++;
+			}
+			for (Map.Entry<String, String> method : source.getMethodMappings(name).entrySet()) {
+				String key = method.getKey();
+				Type type = Type.getMethodType(MappingKeys.getDesc(key));
+				writer.write("    ");
+				writer.write(type.getReturnType().getClassName());
+				writer.write(' ');
+				writer.write(MappingKeys.getName(key));
+				writer.write('(');
+				Type[] args = type.getArgumentTypes();
+				for (int i = 0; i < args.length; i++) {
+					if (i > 0)
+						writer.write(',');
+					writer.write(args[i].getClassName());
+				}
+				writer.write(") -> ");
+				writer.write(method.getValue());
+				writer.newLine();
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static int writeTiny(BufferedWriter writer, MappingSource source) throws IOException {
+		int count = 0;
+		writer.write("tiny\t2\t0\tobf\tnamed");
+		writer.newLine();
+		for (String name : source.getClassNames()) {
+			String mappedName = source.getClassMapping(name);
+			if (mappedName != null)
+				count++;
+			writer.write("c\t");
+			writer.write(name);
+			writer.write('\t');
+			writer.write(mappedName == null ? name : mappedName);
+			writer.newLine();
+			for (Map.Entry<String, String> field : source.getFieldMappings(name).entrySet()) {
+				writeTinyMember(writer, 'f', field.getKey(), field.getValue());
+				count++;
+			}
+			for (Map.Entry<String, String> method : source.getMethodMappings(name).entrySet()) {
+				writeTinyMember(writer, 'm', method.getKey(), method.getValue());
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static void writeTinyMember(BufferedWriter writer, char type, String key, String mapped)
+			throws IOException {
+		writer.write('\t');
+		writer.write(type);
+		writer.write('\t');
+		writer.write(MappingKeys.getDesc(key));
+		writer.write('\t');
+		writer.write(MappingKeys.getName(key));
+		writer.write('\t');
+		writer.write(mapped);
+		writer.newLine();
+	}
+
+	private static int writeSrg(BufferedWriter writer, MappingSource source) throws IOException {
+		// Entries are grouped by type rather than by class, so the classes are walked once per type
+		int count = 0;
+		for (String name : source.getClassNames()) {
+			String mappedName = source.getClassMapping(name);
+			if (mappedName != null) {
+				writer.write("CL: ");
+				writer.write(name);
+				writer.write(' ');
+				writer.write(mappedName);
+				writer.newLine();
+				count++;
+			}
+		}
+		for (String name : source.getClassNames()) {
+			String mappedName = mapClass(source, name);
+			for (Map.Entry<String, String> field : source.getFieldMappings(name).entrySet()) {
+				writer.write("FD: ");
+				writer.write(name);
+				writer.write('/');
+				writer.write(MappingKeys.getName(field.getKey()));
+				writer.write(' ');
+				writer.write(mappedName);
+				writer.write('/');
+				writer.write(field.getValue());
+				writer.newLine();
+				count++;
+			}
+		}
+		for (String name : source.getClassNames()) {
+			String mappedName = mapClass(source, name);
+			for (Map.Entry<String, String> method : source.getMethodMappings(name).entrySet()) {
+				String desc = MappingKeys.getDesc(method.getKey());
+				writer.write("MD: ");
+				writer.write(name);
+				writer.write('/');
+				writer.write(MappingKeys.getName(method.getKey()));
+				writer.write(' ');
+				writer.write(desc);
+				writer.write(' ');
+				writer.write(mappedName);
+				writer.write('/');
+				writer.write(method.getValue());
+				writer.write(' ');
+				writer.write(mapDesc(desc, source));
+				writer.newLine();
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static String mapClass(MappingSource source, String name) {
+		String mappedName = source.getClassMapping(name);
+		return mappedName == null ? name : mappedName;
+	}
+
+	/**
+	 * @param desc
+	 * 		Descriptor to map.
+	 * @param source
+	 * 		Source of class name mappings.
+	 *
+	 * @return Descriptor with class names mapped.
+	 */
+	private static String mapDesc(String desc, MappingSource source) {
+		StringBuilder sb = new StringBuilder(desc.length());
+		int i = 0;
+		while (i < desc.length()) {
+			char c = desc.charAt(i++);
+			sb.append(c);
+			if (c == 'L') {
+				int end = desc.indexOf(';', i);
+				sb.append(mapClass(source, desc.substring(i, end))).append(';');
+				i = end + 1;
+			}
+		}
+		return sb.toString();
+	}
+}
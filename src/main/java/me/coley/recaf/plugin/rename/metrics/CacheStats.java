@@ -0,0 +1,65 @@
+package me.coley.recaf.plugin.rename.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit and miss counts of a cache.
+ *
+ * @author Matt Coley
+ */
+public class CacheStats {
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Record a lookup that found a cached value.
+	 */
+	public void hit() {
+		hits.increment();
+	}
+
+	/**
+	 * Record a lookup that had to compute the value.
+	 */
+	public void miss() {
+		misses.increment();
+	}
+
+	/**
+	 * @param count
+	 * 		Number of lookups that found a cached value.
+	 */
+	public void addHits(long count) {
+		hits.add(count);
+	}
+
+	/**
+	 * @param count
+	 * 		Number of lookups that had to compute the value.
+	 */
+	public void addMisses(long count) {
+		misses.add(count);
+	}
+
+	/**
+	 * Reset the counts to zero.
+	 */
+	public void reset() {
+		hits.reset();
+		misses.reset();
+	}
+
+	/**
+	 * @return Number of lookups that found a cached value.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return Number of lookups that had to compute the value.
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+}
@@ -0,0 +1,77 @@
+package me.coley.recaf.plugin.rename.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies with power of two buckets. Bucket {@code i} counts latencies below {@code 2^i} nanoseconds,
+ * so percentiles are reported as the upper bound of the bucket they fall in, which is at most twice the actual value.
+ * Recording is lock-free, so many worker threads can record into the same histogram.
+ *
+ * @author Matt Coley
+ */
+public class LatencyHistogram {
+	private static final int BUCKETS = 64;
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder total = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * @param nanos
+	 * 		Latency to record, in nanoseconds.
+	 */
+	public void record(long nanos) {
+		nanos = Math.max(0, nanos);
+		buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(nanos));
+		count.increment();
+		total.add(nanos);
+		long current;
+		while (nanos > (current = max.get()) && !max.compareAndSet(current, nanos)) {
+			// Retry until the max is updated, or another thread recorded a higher value
+		}
+	}
+
+	/**
+	 * @return Number of recorded latencies.
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * @return Mean latency in nanoseconds.
+	 */
+	public long getMean() {
+		long n = getCount();
+		return n == 0 ? 0 : total.sum() / n;
+	}
+
+	/**
+	 * @return Highest recorded latency in nanoseconds.
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * @param percentile
+	 * 		Percentile between {@code 0} and {@code 1}.
+	 *
+	 * @return Upper bound of the latency at the percentile, in nanoseconds.
+	 */
+	public long getPercentile(double percentile) {
+		long n = getCount();
+		if (n == 0)
+			return 0;
+		long target = Math.max(1, (long) Math.ceil(n * percentile));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += buckets.get(i);
+			if (seen >= target)
+				return Math.min(i >= 63 ? Long.MAX_VALUE : (1L << i), getMax());
+		}
+		return getMax();
+	}
+}
@@ -0,0 +1,150 @@
+package me.coley.recaf.plugin.rename.metrics;
+
+import me.coley.recaf.plugin.rename.PhaseProgress;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Metrics of a single rename run: the wall time and per-class latencies of each phase,
+ * hit and miss counts of caches, name collisions, and the number of generated mappings by type.
+ *
+ * @author Matt Coley
+ */
+public class RunMetrics {
+	private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+	private final List<PhaseProgress> phases = new ArrayList<>();
+	private final Map<String, long[]> caches = new LinkedHashMap<>();
+	private final Map<String, Long> collisions = new LinkedHashMap<>();
+	private final Map<String, Long> mappings = new LinkedHashMap<>();
+	private final long startTime = System.currentTimeMillis();
+	private int classCount;
+
+	/**
+	 * @param classCount
+	 * 		Number of classes handled by the run.
+	 */
+	public synchronized void setClassCount(int classCount) {
+		this.classCount = classCount;
+	}
+
+	/**
+	 * @param phase
+	 * 		Finished phase to record.
+	 */
+	public synchronized void addPhase(PhaseProgress phase) {
+		phases.add(phase);
+	}
+
+	/**
+	 * @param name
+	 * 		Cache name.
+	 * @param stats
+	 * 		Current stats of the cache. The counts are copied, so the stats can be reset afterwards.
+	 */
+	public synchronized void addCache(String name, CacheStats stats) {
+		caches.put(name, new long[]{stats.getHits(), stats.getMisses()});
+	}
+
+	/**
+	 * @param type
+	 * 		Type of named item, such as {@code "class"}.
+	 * @param count
+	 * 		Number of generated names that collided with an existing name and were given a suffix.
+	 */
+	public synchronized void addCollisions(String type, long count) {
+		collisions.merge(type, count, Long::sum);
+	}
+
+	/**
+	 * @param classes
+	 * 		Number of generated class mappings.
+	 * @param fields
+	 * 		Number of generated field mappings.
+	 * @param methods
+	 * 		Number of generated method mappings.
+	 */
+	public synchronized void setMappingCounts(long classes, long fields, long methods) {
+		mappings.put("class", classes);
+		mappings.put("field", fields);
+		mappings.put("method", methods);
+	}
+
+	/**
+	 * @return Metrics as a JSON object.
+	 */
+	public synchronized String toJson() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("{\n");
+		sb.append("  \"startTime\": ").append(startTime).append(",\n");
+		sb.append("  \"classes\": ").append(classCount).append(",\n");
+		sb.append("  \"phases\": [");
+		for (int i = 0; i < phases.size(); i++) {
+			PhaseProgress phase = phases.get(i);
+			LatencyHistogram latencies = phase.getLatencies();
+			sb.append(i == 0 ? "\n" : ",\n");
+			sb.append("    {\"name\": ").append(quote(phase.getPhaseName()));
+			sb.append(", \"items\": ").append(phase.getCompleted());
+			sb.append(", \"total\": ").append(phase.getTotal());
+			sb.append(", \"cancelled\": ").append(phase.isCancelled());
+			sb.append(", \"wallTimeMs\": ").append(phase.getElapsedMillis());
+			sb.append(", \"latencyMicros\": {\"mean\": ").append(micros(latencies.getMean()));
+			for (double percentile : PERCENTILES)
+				sb.append(", \"p").append(Math.round(percentile * 100)).append("\": ")
+						.append(micros(latencies.getPercentile(percentile)));
+			sb.append(", \"max\": ").append(micros(latencies.getMax())).append("}}");
+		}
+		sb.append(phases.isEmpty() ? "],\n" : "\n  ],\n");
+		sb.append("  \"caches\": {");
+		int i = 0;
+		for (Map.Entry<String, long[]> cache : caches.entrySet()) {
+			long hits = cache.getValue()[0];
+			long misses = cache.getValue()[1];
+			double rate = hits + misses == 0 ? 0 : hits / (double) (hits + misses);
+			sb.append(i++ == 0 ? "\n" : ",\n");
+			sb.append("    ").append(quote(cache.getKey()));
+			sb.append(": {\"hits\": ").append(hits);
+			sb.append(", \"misses\": ").append(misses);
+			sb.append(", \"hitRate\": ").append(String.format(Locale.ROOT, "%.4f", rate)).append('}');
+		}
+		sb.append(caches.isEmpty() ? "},\n" : "\n  },\n");
+		sb.append("  \"collisions\": ");
+		appendCounts(sb, collisions);
+		sb.append(",\n  \"mappings\": ");
+		appendCounts(sb, mappings);
+		sb.append("\n}\n");
+		return sb.toString();
+	}
+
+	private static void appendCounts(StringBuilder sb, Map<String, Long> counts) {
+		sb.append('{');
+		int i = 0;
+		for (Map.Entry<String, Long> count : counts.entrySet()) {
+			if (i++ > 0)
+				sb.append(", ");
+			sb.append(quote(count.getKey())).append(": ").append(count.getValue());
+		}
+		sb.append('}');
+	}
+
+	private static String micros(long nanos) {
+		return String.format(Locale.ROOT, "%.1f", nanos / 1000.0);
+	}
+
+	private static String quote(String text) {
+		StringBuilder sb = new StringBuilder(text.length() + 2);
+		sb.append('"');
+		for (char c : text.toCharArray()) {
+			if (c == '"' || c == '\\')
+				sb.append('\\').append(c);
+			else if (c < ' ')
+				sb.append(String.format("\\u%04x", (int) c));
+			else
+				sb.append(c);
+		}
+		return sb.append('"').toString();
+	}
+}
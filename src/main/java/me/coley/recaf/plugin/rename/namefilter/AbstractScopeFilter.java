@@ -1,7 +1,10 @@
 package me.coley.recaf.plugin.rename.namefilter;
 
-import java.util.HashSet;
+import me.coley.recaf.plugin.rename.metrics.CacheStats;
+
+import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Common base for filters with result caching to prevent unnecessary duplicate checks.
@@ -9,17 +12,22 @@ import java.util.Set;
  * @author Matt Coley
  */
 public abstract class AbstractScopeFilter implements ScopeFilter {
-	private final Set<String> visitedMatches = new HashSet<>();
-	private final Set<String> visitedNonMatches = new HashSet<>();
+	private final Set<String> visitedMatches = Collections.newSetFromMap(new ConcurrentHashMap<>());
+	private final Set<String> visitedNonMatches = Collections.newSetFromMap(new ConcurrentHashMap<>());
+	private final CacheStats cacheStats = new CacheStats();
 
 	@Override
 	public boolean matches(String name) {
 		// Check for existing result
-		if (visitedMatches.contains(name))
+		if (visitedMatches.contains(name)) {
+			cacheStats.hit();
 			return true;
-		else if (visitedNonMatches.contains(name))
+		} else if (visitedNonMatches.contains(name)) {
+			cacheStats.hit();
 			return false;
+		}
 		// Compute and store result
+		cacheStats.miss();
 		boolean result = computeMatch(name);
 		if (result)
 			visitedMatches.add(name);
@@ -28,5 +36,12 @@ public abstract class AbstractScopeFilter implements ScopeFilter {
 		return result;
 	}
 
+	/**
+	 * @return Hit and miss counts of the result cache.
+	 */
+	public CacheStats getCacheStats() {
+		return cacheStats;
+	}
+
 	protected abstract boolean computeMatch(String name);
 }
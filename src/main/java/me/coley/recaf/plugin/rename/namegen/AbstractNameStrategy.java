@@ -2,17 +2,26 @@ package me.coley.recaf.plugin.rename.namegen;
 
 import me.coley.recaf.control.Controller;
 import me.coley.recaf.graph.inheritance.HierarchyGraph;
-import me.coley.recaf.util.ClassUtil;
+import me.coley.recaf.plugin.rename.ClassRegistry;
+import me.coley.recaf.plugin.rename.SymbolTable;
+import me.coley.recaf.plugin.rename.mapping.MappingKeys;
+import me.coley.recaf.plugin.rename.metrics.CacheStats;
+import me.coley.recaf.plugin.rename.metrics.RunMetrics;
+import me.coley.recaf.plugin.rename.namefilter.ScopeFilter;
 import me.coley.recaf.util.Log;
 import me.coley.recaf.workspace.Workspace;
-import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
 import org.objectweb.asm.tree.MethodNode;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Common base for name strategies with some caching capabilities.
@@ -20,65 +29,98 @@ import java.util.concurrent.ConcurrentHashMap;
  * @author Matt Coley
  */
 public abstract class AbstractNameStrategy implements NameStrategy {
-	private final Map<String, Boolean> isLibraryMethodCache = new ConcurrentHashMap<>();
-	private final Map<String, Boolean> definesMethodCache = new ConcurrentHashMap<>();
+	// Member caches are keyed by packed symbol table keys, see fieldKey and methodKey
 	private final Map<String, String> classNameCache = new ConcurrentHashMap<>();
-	private final Map<String, String> fieldNameCache = new ConcurrentHashMap<>();
-	private final Map<String, String> methodNameCache = new ConcurrentHashMap<>();
+	private final Map<Long, String> fieldNameCache = new ConcurrentHashMap<>();
+	private final Map<Long, String> methodNameCache = new ConcurrentHashMap<>();
+	private final NameIndex classNameIndex = new NameIndex();
 	private final Set<String> warnedDupeNames = Collections.newSetFromMap(new ConcurrentHashMap<>());
+	private final CacheStats methodFamilyStats = new CacheStats();
+	private final Map<String, LongAdder> collisions = new ConcurrentHashMap<>();
 	private final Controller controller;
+	private final ClassRegistry registry;
+	private final SymbolTable symbols;
+	private final MemberScopes memberScopes;
+	private final MethodFamilies methodFamilies;
 	private final HierarchyGraph graph;
 
-	protected AbstractNameStrategy(Controller controller) {
+	protected AbstractNameStrategy(Controller controller, ClassRegistry registry) {
 		this.controller = controller;
+		this.registry = registry;
+		symbols = registry.getSymbols();
+		memberScopes = new MemberScopes(registry);
+		methodFamilies = new MethodFamilies(registry);
 		graph = controller.getWorkspace().getHierarchyGraph();
 	}
 
+	@Override
+	public void prepare(List<ClassNode> nodes, ScopeFilter scopeFilter) {
+		// Strategies may be re-used across runs, and classes and members may have been renamed since the prior run.
+		// Lookups of the workspace are reset, while names from prior runs are kept to stay reserved.
+		memberScopes.clear();
+		methodFamilyStats.reset();
+		collisions.clear();
+		// Families are re-built for the current hierarchy, and take the names their methods were given before.
+		// Should imported mappings give members of one family different names, the first member by key wins.
+		methodFamilies.build(nodes);
+		Map<String, String> named = new TreeMap<>();
+		methodNameCache.forEach((key, mapped) -> {
+			if (methodFamilies.get(key) != null)
+				named.put(symbols.toMethodKey(key), mapped);
+		});
+		named.forEach((key, mapped) -> methodFamilies.get(symbols.fromMappingKey(key)).claimName(mapped));
+	}
+
+	@Override
+	public void reportMetrics(RunMetrics metrics) {
+		metrics.addCache("methodFamilies", methodFamilyStats);
+		collisions.forEach((type, count) -> metrics.addCollisions(type, count.sum()));
+	}
+
+	@Override
+	public void seed(Map<String, String> mappings) {
+		mappings.forEach((key, mapped) -> {
+			if (MappingKeys.isClass(key)) {
+				// The class cache holds simple names, packages are handled by the name generator
+				String simpleName = mapped.substring(mapped.lastIndexOf('/') + 1);
+				classNameIndex.claim(key, simpleName);
+				classNameCache.put(key, simpleName);
+			} else if (MappingKeys.isField(key)) {
+				fieldNameCache.put(symbols.fromMappingKey(key), mapped);
+			} else {
+				methodNameCache.put(symbols.fromMappingKey(key), mapped);
+			}
+		});
+	}
+
 	/**
 	 * @param owner
-	 * 		Class with hierarchy to check.
+	 * 		Class defining the method.
 	 * @param method
 	 * 		Method definition.
 	 *
-	 * @return {@code null} when no parent class has a mapping for the method.
-	 * Otherwise result is the reserved mapping.
+	 * @return {@code null} when no method of the method's family has been named yet.
+	 * Otherwise result is the name of the family.
 	 */
-	protected String getParentMethodMappedName(ClassNode owner, MethodNode method) {
-		Set<String> owners = graph.getHierarchyNames(owner.name);
-		for (String className : owners) {
-			// Skip parameter class
-			if (className.equals(owner.name))
-				continue;
-			// Check if the class in the hierarchy contains the method
-			if (classDefinesMethod(className, method)) {
-				// Check if we have already mapped the method
-				String methodKey = methodKey(className, method.name, method.desc);
-				String mappedName = getMethodMapping(methodKey);
-				if (mappedName != null)
-					return mappedName;
-			}
-		}
-		// No associated parent
-		return null;
+	protected String getFamilyMappedName(ClassNode owner, MethodNode method) {
+		long key = methodKey(owner, method);
+		MethodFamilies.Family family = getFamily(key);
+		if (family == null)
+			return getMethodMapping(key);
+		return family.getName();
 	}
 
-	/***
-	 * Check if a class defines the given method.
-	 * @param className Name of class to check.
-	 * @param method Method definition to check.
-	 * @return {@code true} when it does. {@code false} otherwise.
-	 */
-	protected boolean classDefinesMethod(String className, MethodNode method) {
-		String methodKey = methodKey(className, method.name, method.desc);
-		// Check if we've already computed if the method has been defined in the class orn ot.
-		// Need to use boxed type for nullability.
-		Boolean cached = definesMethodCache.get(methodKey);
-		if (cached == null) {
-			ClassReader reader = controller.getWorkspace().getClassReader(className);
-			cached = ClassUtil.containsMethod(reader, method.name, method.desc);
-			definesMethodCache.put(methodKey, cached);
-		}
-		return cached;
+	@Override
+	public String claimClassName(ClassNode node, String name) {
+		return addClassMapping(node.name, name);
+	}
+
+	@Override
+	public Collection<String> methodOwners(ClassNode owner, MethodNode method) {
+		MethodFamilies.Family family = methodFamilies.get(methodKey(owner, method));
+		if (family == null)
+			return Collections.singleton(owner.name);
+		return family.getOwners();
 	}
 
 	/**
@@ -92,15 +134,26 @@ public abstract class AbstractNameStrategy implements NameStrategy {
 	 * @return {@code true} if the method is a library method.
 	 */
 	protected boolean isLibrary(ClassNode owner, MethodNode method) {
-		String methodKey = methodKey(owner, method);
-		// Check if we've already computed if the method is a library one or not.
-		// Need to use boxed type for nullability.
-		Boolean cached = isLibraryMethodCache.get(methodKey);
-		if (cached == null) {
-			cached = graph.isLibrary(owner.name, method.name, method.desc);
-			isLibraryMethodCache.put(methodKey, cached);
-		}
-		return cached;
+		MethodFamilies.Family family = getFamily(methodKey(owner, method));
+		if (family == null)
+			return graph.isLibrary(owner.name, method.name, method.desc);
+		return family.isLibrary();
+	}
+
+	/**
+	 * @param key
+	 * 		Method key.
+	 *
+	 * @return Family of the method, or {@code null} if the method's class was not given to
+	 * {@link #prepare(List, ScopeFilter)}.
+	 */
+	private MethodFamilies.Family getFamily(long key) {
+		MethodFamilies.Family family = methodFamilies.get(key);
+		if (family == null)
+			methodFamilyStats.miss();
+		else
+			methodFamilyStats.hit();
+		return family;
 	}
 
 	/**
@@ -133,7 +186,7 @@ public abstract class AbstractNameStrategy implements NameStrategy {
 	 *
 	 * @return Current mapped name.
 	 */
-	protected String getFieldMapping(String key) {
+	protected String getFieldMapping(long key) {
 		return fieldNameCache.get(key);
 	}
 
@@ -143,7 +196,7 @@ public abstract class AbstractNameStrategy implements NameStrategy {
 	 *
 	 * @return Current mapped name.
 	 */
-	protected String getMethodMapping(String key) {
+	protected String getMethodMapping(long key) {
 		return methodNameCache.get(key);
 	}
 
@@ -168,84 +221,101 @@ public abstract class AbstractNameStrategy implements NameStrategy {
 	 * 		New class name.
 	 *
 	 * @return Unique de-duplicated new class name.
+	 * If the class was already mapped, the existing name is returned instead.
 	 */
 	protected String addClassMapping(String key, String name) {
+		String existing = classNameCache.get(key);
+		if (existing != null)
+			return existing;
 		// Prevent duplicates
-		int counter = 1;
-		String uniqueName = name;
-		boolean dupe = false;
-		while (classNameCache.containsValue(uniqueName)) {
-			uniqueName = name + (counter++);
-			dupe = true;
-		}
-		classNameCache.put(key, uniqueName);
-		// Warn about dupes
-		if (dupe && !warnedDupeNames.contains(name)) {
-			Log.warn("Automatically mapped class '{}' -> '{}' " +
-					"but the generated name is already used! Using '{}'", key, name, uniqueName);
-			warnedDupeNames.add(name);
+		String uniqueName = classNameIndex.claim(key, name);
+		existing = classNameCache.putIfAbsent(key, uniqueName);
+		if (existing != null) {
+			// Another thread mapped the same class first
+			if (!existing.equals(uniqueName))
+				classNameIndex.release(key, uniqueName);
+			return existing;
 		}
+		if (!uniqueName.equals(name))
+			warnDuplicate("class", key, name, uniqueName);
 		return uniqueName;
 	}
 
 	/**
-	 * Register the field mapping and ensure it isn't a duplicate entry.
+	 * Register the field mapping and ensure it isn't a duplicate entry within the owner's hierarchy.
 	 *
-	 * @param key
-	 * 		Field key value.
+	 * @param owner
+	 * 		Class defining the field.
+	 * @param field
+	 * 		Field definition.
 	 * @param name
 	 * 		New field name.
 	 *
 	 * @return Unique de-duplicated new field name.
+	 * If the field was already mapped, the existing name is returned instead.
 	 */
-	protected String addFieldMapping(String key, String name) {
+	protected String addFieldMapping(ClassNode owner, FieldNode field, String name) {
+		long key = fieldKey(owner.name, field.name, field.desc);
+		String existing = fieldNameCache.get(key);
+		if (existing != null)
+			return existing;
 		// Prevent duplicates
-		int counter = 1;
-		String uniqueName = name;
-		boolean dupe = false;
-		while (fieldNameCache.containsValue(uniqueName)) {
-			uniqueName = name + (counter++);
-			dupe = true;
-		}
+		String uniqueName = memberScopes.claimField(owner.name, name);
 		fieldNameCache.put(key, uniqueName);
-		// Warn about dupes
-		if (dupe && !warnedDupeNames.contains(name)) {
-			Log.warn("Automatically mapped field '{}' -> '{}' " +
-					"but the generated name already used! Using '{}'", key, name, uniqueName);
-			warnedDupeNames.add(name);
-		}
+		if (!uniqueName.equals(name))
+			warnDuplicate("field", symbols.toFieldKey(key), name, uniqueName);
 		return uniqueName;
 	}
 
 	/**
-	 * Register the method mapping and ensure it isn't a duplicate entry.
+	 * Register the method mapping and ensure it isn't a duplicate entry within the owner's hierarchy.
+	 * The name is given to the method's whole family.
 	 *
-	 * @param key
-	 * 		Method key value.
+	 * @param owner
+	 * 		Class defining the method.
+	 * @param method
+	 * 		Method definition.
 	 * @param name
 	 * 		New method name.
 	 *
 	 * @return Unique de-duplicated new method name.
+	 * If the method or its family was already mapped, the existing name is returned instead.
 	 */
-	protected String addMethodMapping(String key, String name) {
-		// Prevent duplicates
-		int counter = 1;
-		String uniqueName = name;
-		boolean dupe = false;
-		while (methodNameCache.containsValue(uniqueName)) {
-			uniqueName = name + (counter++);
-			dupe = true;
+	protected String addMethodMapping(ClassNode owner, MethodNode method, String name) {
+		long key = methodKey(owner, method);
+		String existing = methodNameCache.get(key);
+		if (existing != null)
+			return existing;
+		MethodFamilies.Family family = getFamily(key);
+		if (family != null && (existing = family.getName()) != null) {
+			methodNameCache.put(key, existing);
+			return existing;
 		}
+		// Prevent duplicates. A family's name is claimed in the hierarchies of all classes declaring one of its methods,
+		// since each of them is renamed to it.
+		String uniqueName = family == null ?
+				memberScopes.claimMethod(owner.name, name, method.desc) :
+				memberScopes.claimMethod(family.getOwners(), name, method.desc);
+		if (family != null)
+			family.claimName(uniqueName);
 		methodNameCache.put(key, uniqueName);
-		// Warn about dupes
-		if (dupe && !warnedDupeNames.contains(name)) {
-			Log.warn("Automatically mapped method '{}' -> '{}' " +
-					"but the generated name already used! Using '{}'", key, name, uniqueName);
-			warnedDupeNames.add(name);
-		}
+		if (!uniqueName.equals(name))
+			warnDuplicate("method", symbols.toMethodKey(key), name, uniqueName);
 		return uniqueName;
 	}
 
+	/**
+	 * Record that a generated name was already used and had to be changed.
+	 * The key is only built as a string for this case, since it is logged.
+	 */
+	private void warnDuplicate(String type, String key, String name, String uniqueName) {
+		collisions.computeIfAbsent(type, t -> new LongAdder()).increment();
+		if (warnedDupeNames.add(name)) {
+			Log.warn("Automatically mapped {} '{}' -> '{}' " +
+					"but the generated name is already used! Using '{}'", type, key, name, uniqueName);
+		}
+	}
+
 	/**
 	 * @return The workspace to pull class info from.
 	 */
@@ -253,9 +323,16 @@ public abstract class AbstractNameStrategy implements NameStrategy {
 		return controller.getWorkspace();
 	}
 
+	/**
+	 * @return Registry of classes parsed for the current run.
+	 */
+	protected ClassRegistry getRegistry() {
+		return registry;
+	}
+
 
 	/**
-	 * Map a class + field pair definition to a pattern to use for lookups.
+	 * Map a class + field pair definition to a packed key to use for lookups.
 	 *
 	 * @param owner
 	 * 		Class.
@@ -266,12 +343,12 @@ public abstract class AbstractNameStrategy implements NameStrategy {
 	 *
 	 * @return Key for lookups.
 	 */
-	protected static String fieldKey(String owner, String name, String desc) {
-		return owner + "." + name + " " + desc;
+	protected long fieldKey(String owner, String name, String desc) {
+		return symbols.memberKey(owner, name, desc);
 	}
 
 	/**
-	 * Map a class + method pair definition to a pattern to use for lookups.
+	 * Map a class + method pair definition to a packed key to use for lookups.
 	 *
 	 * @param owner
 	 * 		Class.
@@ -280,12 +357,12 @@ public abstract class AbstractNameStrategy implements NameStrategy {
 	 *
 	 * @return Key for lookups.
 	 */
-	protected static String methodKey(ClassNode owner, MethodNode method) {
+	protected long methodKey(ClassNode owner, MethodNode method) {
 		return methodKey(owner.name, method.name, method.desc);
 	}
 
 	/**
-	 * Map a class + method pair definition to a pattern to use for lookups.
+	 * Map a class + method pair definition to a packed key to use for lookups.
 	 *
 	 * @param owner
 	 * 		Class name.
@@ -296,7 +373,7 @@ public abstract class AbstractNameStrategy implements NameStrategy {
 	 *
 	 * @return Key for lookups.
 	 */
-	protected static String methodKey(String owner, String name, String desc) {
-		return owner + "." + name + desc;
+	protected long methodKey(String owner, String name, String desc) {
+		return symbols.memberKey(owner, name, desc);
 	}
 }
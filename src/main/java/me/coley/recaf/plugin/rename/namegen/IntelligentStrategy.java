@@ -1,12 +1,18 @@
 package me.coley.recaf.plugin.rename.namegen;
 
 import me.coley.recaf.control.Controller;
+import me.coley.recaf.plugin.rename.ClassRegistry;
+import me.coley.recaf.plugin.rename.analysis.AnalysisCache;
 import me.coley.recaf.plugin.rename.analysis.BayesWrapper;
+import me.coley.recaf.plugin.rename.analysis.ClassAnalysis;
+import me.coley.recaf.plugin.rename.analysis.Classification;
+import me.coley.recaf.plugin.rename.analysis.TypeDiagnostics;
+import me.coley.recaf.plugin.rename.metrics.CacheStats;
+import me.coley.recaf.plugin.rename.metrics.RunMetrics;
+import me.coley.recaf.plugin.rename.namefilter.ScopeFilter;
 import me.coley.recaf.util.AccessFlag;
-import me.coley.recaf.util.ClassUtil;
 import me.coley.recaf.util.Log;
 import me.coley.recaf.util.TypeUtil;
-import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.AbstractInsnNode;
@@ -17,16 +23,28 @@ import org.objectweb.asm.tree.LocalVariableNode;
 import org.objectweb.asm.tree.MethodNode;
 import org.objectweb.asm.tree.VarInsnNode;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 /**
  * A naming strategy that yields an intelligent pattern of renaming classes and their members.
  *
  * @author Matt Coley
  */
 public class IntelligentStrategy extends AbstractNameStrategy {
+	private static final int DIAGNOSTICS_REPORT_SIZE = 10;
+	// Only covers classes analyzed in the current run. Classes with a cached analysis are not scanned again,
+	// so their references were counted by the run that first analyzed them.
+	private final TypeDiagnostics diagnostics = new TypeDiagnostics();
+	private final Map<String, Classification> purposes = new ConcurrentHashMap<>();
+	private final CacheStats analysisCacheStats = new CacheStats();
 	private double classificationThreshold;
 
-	protected IntelligentStrategy(Controller controller, double classificationThreshold) {
-		super(controller);
+	protected IntelligentStrategy(Controller controller, ClassRegistry registry, double classificationThreshold) {
+		super(controller, registry);
 		this.classificationThreshold = classificationThreshold;
 		setupBayes();
 	}
@@ -39,12 +57,73 @@ public class IntelligentStrategy extends AbstractNameStrategy {
 		}
 	}
 
+	@Override
+	public void prepare(List<ClassNode> nodes, ScopeFilter scopeFilter) {
+		super.prepare(nodes, scopeFilter);
+		diagnostics.clear();
+		purposes.clear();
+		analysisCacheStats.reset();
+		if (BayesWrapper.getModel() == null)
+			return;
+		// Classify all classes that will be named in one batch
+		List<ClassNode> targets = nodes.stream()
+				.filter(node -> scopeFilter.matches(node.name))
+				.collect(Collectors.toList());
+		// Classes analyzed in prior runs are pulled from the cache
+		AnalysisCache cache = BayesWrapper.getAnalysisCache();
+		Map<String, byte[]> classes = getWorkspace().getPrimary().getClasses();
+		ClassAnalysis[] analyses = new ClassAnalysis[targets.size()];
+		double[][] features = new double[targets.size()][];
+		IntStream.range(0, analyses.length).parallel().forEach(i -> {
+			ClassNode node = targets.get(i);
+			byte[] code = cache == null ? null : classes.get(node.name);
+			if (code != null)
+				analyses[i] = cache.get(code);
+			if (analyses[i] == null)
+				features[i] = BayesWrapper.createClassFeatures(node, diagnostics);
+		});
+		int[] misses = IntStream.range(0, analyses.length).filter(i -> analyses[i] == null).toArray();
+		double[][] missFeatures = new double[misses.length][];
+		for (int i = 0; i < misses.length; i++)
+			missFeatures[i] = features[misses[i]];
+		ClassAnalysis[] missAnalyses = BayesWrapper.analyzeAll(missFeatures);
+		for (int i = 0; i < misses.length; i++) {
+			int index = misses[i];
+			analyses[index] = missAnalyses[i];
+			byte[] code = cache == null ? null : classes.get(targets.get(index).name);
+			if (code != null)
+				cache.put(code, missAnalyses[i]);
+		}
+		if (cache != null) {
+			cache.flush();
+			analysisCacheStats.addHits(analyses.length - misses.length);
+			analysisCacheStats.addMisses(misses.length);
+			Log.debug("AutoRename analysis cache: {} hits, {} misses", analyses.length - misses.length, misses.length);
+		}
+		for (int i = 0; i < analyses.length; i++)
+			purposes.put(targets.get(i).name, analyses[i].classify(classificationThreshold));
+	}
+
+	@Override
+	public void complete() {
+		diagnostics.report(DIAGNOSTICS_REPORT_SIZE);
+		long cached = analysisCacheStats.getHits();
+		if (cached > 0)
+			Log.debug("AutoRename analysis cache: Type references of {} cached classes are not in the diagnostics",
+					cached);
+	}
+
+	@Override
+	public void reportMetrics(RunMetrics metrics) {
+		super.reportMetrics(metrics);
+		metrics.addCache("analysisCache", analysisCacheStats);
+	}
 
 	@Override
 	public String className(ClassNode node) {
 		// Do lookup check first since some calls may populate cached items for parent types
 		if (hasClassMapping(node.name))
-			return addClassMapping(node.name, getCurrentClassName(node.name));
+			return getCurrentClassName(node.name);
 		// Check for parent name
 		String baseName = getParentName(node);
 		String purposeName = null;
@@ -87,8 +166,7 @@ public class IntelligentStrategy extends AbstractNameStrategy {
 			Log.warn("Skip redundant mapping: {} ---> {}", node.name, mapped);
 			return null;
 		}
-		// Add mapping
-		return addClassMapping(node.name, mapped);
+		return mapped;
 	}
 
 	@Override
@@ -105,8 +183,7 @@ public class IntelligentStrategy extends AbstractNameStrategy {
 				simple = simple.replace("[", "Array");
 			name = "f" + NameUtils.capitalize(simple);
 		}
-		String key = fieldKey(owner.name, field.name, field.desc);
-		return addFieldMapping(key, name);
+		return addFieldMapping(owner, field, name);
 	}
 
 	@Override
@@ -115,27 +192,26 @@ public class IntelligentStrategy extends AbstractNameStrategy {
 		if (isLibrary(owner, method)) {
 			return null;
 		}
-		// Yield the name used by the rest of the method hierarchy
-		String parentMapped = getParentMethodMappedName(owner, method);
-		if (parentMapped != null) {
-			return parentMapped;
+		// Yield the name used by the rest of the method's family
+		String familyMapped = getFamilyMappedName(owner, method);
+		if (familyMapped != null) {
+			return familyMapped;
 		}
 		// Cant infer anything useful
 		if (AccessFlag.isAbstract(method.access)) {
 			return null;
 		}
-		String key = methodKey(owner.name, method.name, method.desc);
 		// Check getter
 		if (endsInGetter(owner, method)) {
 			FieldInsnNode field = getLastFieldInsn(method);
 			if (field != null)
-				return addMethodMapping(key, "get" + NameUtils.capitalize(getFieldName(owner, field)));
+				return addMethodMapping(owner, method, "get" + NameUtils.capitalize(getFieldName(owner, field)));
 		}
 		// Check setter
 		if (endsInSetter(owner, method)) {
 			FieldInsnNode field = getLastFieldInsn(method);
 			if (field != null)
-				return addMethodMapping(key, "set" + NameUtils.capitalize(getFieldName(owner, field)));
+				return addMethodMapping(owner, method, "set" + NameUtils.capitalize(getFieldName(owner, field)));
 		}
 		return null;
 	}
@@ -161,8 +237,11 @@ public class IntelligentStrategy extends AbstractNameStrategy {
 	 * @return Name for class based on usage.
 	 */
 	private String analyzePurpose(ClassNode node) {
-		return BayesWrapper.getPredictedClassification(classificationThreshold,
-				BayesWrapper.createClassDataExample(node)).toString();
+		Classification purpose = purposes.get(node.name);
+		if (purpose != null)
+			return purpose.toString();
+		return BayesWrapper.classify(classificationThreshold,
+				BayesWrapper.createClassFeatures(node, diagnostics)).toString();
 	}
 
 	/**
@@ -300,8 +379,7 @@ public class IntelligentStrategy extends AbstractNameStrategy {
 	 * @return Mapped name of field, or whatever is passed if no mapping found.
 	 */
 	private String getFieldName(ClassNode owner, FieldInsnNode field) {
-		String key = fieldKey(owner.name, field.name, field.desc);
-		String mapped = getFieldMapping(key);
+		String mapped = getFieldMapping(fieldKey(owner.name, field.name, field.desc));
 		if (mapped != null) {
 			return mapped;
 		}
@@ -321,10 +399,12 @@ public class IntelligentStrategy extends AbstractNameStrategy {
 			if (hasClassMapping(name)) {
 				// Map to existing mapping
 				currentMapping = getCurrentClassName(name);
-			} else if (getWorkspace().getPrimary().getClasses().containsKey(name)) {
-				// No mapping, see what we would map it to if its in the primary workspace
-				ClassNode baseClass = ClassUtil.getNode(getWorkspace().getClassReader(name), ClassReader.SKIP_CODE);
-				currentMapping = className(baseClass);
+			} else if (getRegistry().isPrimary(name)) {
+				// No mapping, see what we would map it to if its in the primary workspace.
+				// Parents in the run are claimed in earlier waves, so this only proposes names for those outside it.
+				ClassNode baseClass = getRegistry().getNode(name);
+				if (baseClass != null)
+					currentMapping = className(baseClass);
 			}
 			// If a mapping was found, apply
 			if (currentMapping != null) {
@@ -0,0 +1,183 @@
+package me.coley.recaf.plugin.rename.namegen;
+
+import me.coley.recaf.plugin.rename.ClassRegistry;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks which member names are used in each class hierarchy.
+ * A name given to a member must not be used by the owner, any of its parents, any of its children,
+ * or any other parent of those children. The latter are co-parents, such as {@code B} for {@code A} in
+ * {@code C extends A implements B}, since {@code C} inherits the members of both.
+ * Sibling classes do not conflict with one another, so they can reuse the same names.
+ * <br>
+ * Each class's scope is seeded with the names it declares, and names claimed in a class are only recorded in the
+ * class itself. Names shared by a family of methods are checked against, and recorded in, every class of the
+ * family. A claim checks the scopes of every related class, which are found once per class through the
+ * {@link ClassRegistry}, so children outside of the current run are checked as well.
+ * <br>
+ * Claims for one class are expected to come from a single thread, and parents are expected to be
+ * handled before their children, as done by the {@link me.coley.recaf.plugin.rename.HierarchyScheduler}.
+ *
+ * @author Matt Coley
+ */
+public class MemberScopes {
+	private final Map<String, Set<String>> fieldScopes = new ConcurrentHashMap<>();
+	private final Map<String, Set<String>> methodScopes = new ConcurrentHashMap<>();
+	private final Map<String, List<String>> relatedClasses = new ConcurrentHashMap<>();
+	private final ClassRegistry registry;
+
+	/**
+	 * @param registry
+	 * 		Registry to pull class hierarchy data from.
+	 */
+	public MemberScopes(ClassRegistry registry) {
+		this.registry = registry;
+	}
+
+	/**
+	 * Remove all claimed names.
+	 */
+	public void clear() {
+		fieldScopes.clear();
+		methodScopes.clear();
+		relatedClasses.clear();
+	}
+
+	/**
+	 * @param owner
+	 * 		Class defining the field.
+	 * @param name
+	 * 		Requested field name.
+	 *
+	 * @return The requested name if it is free in the owner's hierarchy,
+	 * otherwise the first free {@link NameUtils#duplicateName(String, int) duplicate name}.
+	 */
+	public String claimField(String owner, String name) {
+		return claim(fieldScopes, Collections.singleton(owner), name, "");
+	}
+
+	/**
+	 * @param owner
+	 * 		Class defining the method.
+	 * @param name
+	 * 		Requested method name.
+	 * @param desc
+	 * 		Method descriptor.
+	 *
+	 * @return The requested name if it is free in the owner's hierarchy,
+	 * otherwise the first free {@link NameUtils#duplicateName(String, int) duplicate name}.
+	 * Methods with different parameter types do not conflict.
+	 */
+	public String claimMethod(String owner, String name, String desc) {
+		return claimMethod(Collections.singleton(owner), name, desc);
+	}
+
+	/**
+	 * Claim one name for methods that must share it, such as the methods of a
+	 * {@link MethodFamilies.Family family}.
+	 *
+	 * @param owners
+	 * 		Classes defining the methods.
+	 * @param name
+	 * 		Requested method name.
+	 * @param desc
+	 * 		Method descriptor.
+	 *
+	 * @return The requested name if it is free in the hierarchies of all owners,
+	 * otherwise the first free {@link NameUtils#duplicateName(String, int) duplicate name}.
+	 */
+	public String claimMethod(Collection<String> owners, String name, String desc) {
+		return claim(methodScopes, owners, name, parameters(desc));
+	}
+
+	private String claim(Map<String, Set<String>> scopes, Collection<String> owners, String name, String suffix) {
+		List<Set<String>> ownerScopes = new ArrayList<>(owners.size());
+		Set<Set<String>> checked = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (String owner : owners) {
+			Set<String> scope = getScope(scopes, owner);
+			ownerScopes.add(scope);
+			checked.add(scope);
+			for (String relatedClass : getRelatedClasses(owner))
+				checked.add(getScope(scopes, relatedClass));
+		}
+		// Find a free name
+		String uniqueName = name;
+		int counter = 1;
+		while (isTaken(checked, uniqueName + suffix))
+			uniqueName = NameUtils.duplicateName(name, counter++);
+		// Record it in every owner
+		for (Set<String> scope : ownerScopes)
+			scope.add(uniqueName + suffix);
+		return uniqueName;
+	}
+
+	private static boolean isTaken(Collection<Set<String>> scopes, String token) {
+		for (Set<String> scope : scopes)
+			if (scope.contains(token))
+				return true;
+		return false;
+	}
+
+	/**
+	 * @param owner
+	 * 		Class name.
+	 *
+	 * @return Parents, children, and parents of children of the class, excluding the class itself.
+	 */
+	private List<String> getRelatedClasses(String owner) {
+		List<String> cached = relatedClasses.get(owner);
+		if (cached != null)
+			return cached;
+		Set<String> related = new LinkedHashSet<>(registry.getParents(owner));
+		for (String child : registry.getDescendants(owner)) {
+			related.add(child);
+			related.addAll(registry.getParents(child));
+		}
+		related.remove(owner);
+		cached = new ArrayList<>(related);
+		relatedClasses.put(owner, cached);
+		return cached;
+	}
+
+	private Set<String> getScope(Map<String, Set<String>> scopes, String name) {
+		Set<String> scope = scopes.get(name);
+		if (scope != null)
+			return scope;
+		// Seed with the names the class already declares
+		scope = Collections.newSetFromMap(new ConcurrentHashMap<>());
+		ClassNode node = registry.getNode(name);
+		if (node != null) {
+			if (scopes == fieldScopes) {
+				for (FieldNode field : node.fields)
+					scope.add(field.name);
+			} else {
+				for (MethodNode method : node.methods)
+					scope.add(method.name + parameters(method.desc));
+			}
+		}
+		Set<String> existing = scopes.putIfAbsent(name, scope);
+		return existing == null ? scope : existing;
+	}
+
+	/**
+	 * @param desc
+	 * 		Method descriptor.
+	 *
+	 * @return Parameter portion of the descriptor.
+	 */
+	private static String parameters(String desc) {
+		return desc.substring(0, desc.indexOf(')') + 1);
+	}
+}
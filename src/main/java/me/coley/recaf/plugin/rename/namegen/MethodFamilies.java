@@ -0,0 +1,244 @@
+package me.coley.recaf.plugin.rename.namegen;
+
+import me.coley.recaf.plugin.rename.ClassRegistry;
+import me.coley.recaf.plugin.rename.SymbolTable;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Groups methods that must share a name into families.
+ * Methods with the same name and descriptor are put into the same family when they are declared by a class and
+ * any of its parents, or by any two parents of the same class, since the class then implements both with one method.
+ * Families are joined with union-find, once per run, so naming a method only needs a single lookup rather than
+ * a search of its hierarchy.
+ * <br>
+ * A family is a library family when any of its methods is declared outside the primary resource, in which case none
+ * of its methods can be renamed. Otherwise the family is given one name, by the class that names a member first.
+ * All classes of a family are in the same hierarchy component, which is named on a single thread in hierarchy order,
+ * as done by {@link me.coley.recaf.plugin.rename.HierarchyScheduler#computeComponents(List)}, so that class is always
+ * the same one.
+ *
+ * @author Matt Coley
+ */
+public class MethodFamilies {
+	private final Map<Long, Family> families = new HashMap<>();
+	private final ClassRegistry registry;
+	private final SymbolTable symbols;
+
+	/**
+	 * @param registry
+	 * 		Registry to pull class hierarchy data from.
+	 */
+	public MethodFamilies(ClassRegistry registry) {
+		this.registry = registry;
+		this.symbols = registry.getSymbols();
+	}
+
+	/**
+	 * Remove all families.
+	 */
+	public void clear() {
+		families.clear();
+	}
+
+	/**
+	 * Build the families of the methods of the given classes, and of the methods they inherit.
+	 * Must be called before any lookups of the run, and not concurrently with them.
+	 *
+	 * @param nodes
+	 * 		Classes to build families for.
+	 */
+	public void build(Collection<ClassNode> nodes) {
+		families.clear();
+		// Collecting groups parses the parents of each class, so it is done in parallel.
+		// Joining the groups is cheap in comparison and done afterwards on a single thread.
+		List<long[]> groups = nodes.parallelStream()
+				.flatMap(node -> collectGroups(node).stream())
+				.collect(Collectors.toList());
+		UnionFind union = new UnionFind();
+		for (long[] group : groups) {
+			int first = union.add(group[0]);
+			for (int i = 1; i < group.length; i++)
+				union.join(first, union.add(group[i]));
+		}
+		// One family per root, flagged as library if any member is declared outside the primary resource
+		Family[] roots = new Family[union.size()];
+		for (int i = 0; i < union.size(); i++) {
+			int root = union.find(i);
+			Family family = roots[root];
+			if (family == null)
+				family = roots[root] = new Family();
+			long key = union.getKey(i);
+			String owner = symbols.getOwner(key);
+			if (registry.isPrimary(owner))
+				family.owners.add(owner);
+			else
+				family.library = true;
+			families.put(key, family);
+		}
+	}
+
+	/**
+	 * @param key
+	 * 		Packed key of a method, see {@link SymbolTable#memberKey(String, String, String)}.
+	 *
+	 * @return Family of the method, or {@code null} if the method's class was not given to {@link #build(Collection)}.
+	 */
+	public Family get(long key) {
+		return families.get(key);
+	}
+
+	/**
+	 * @return Number of methods with a family.
+	 */
+	public int size() {
+		return families.size();
+	}
+
+	/**
+	 * @param node
+	 * 		Class to check.
+	 *
+	 * @return Keys of methods with the same name and descriptor, declared by the class or its parents.
+	 */
+	private List<long[]> collectGroups(ClassNode node) {
+		Map<Long, List<Long>> declarers = new LinkedHashMap<>();
+		addMethods(declarers, node);
+		for (String parent : registry.getParents(node.name)) {
+			ClassNode parentNode = registry.getNode(parent);
+			if (parentNode != null)
+				addMethods(declarers, parentNode);
+		}
+		List<long[]> groups = new ArrayList<>(declarers.size());
+		for (List<Long> keys : declarers.values()) {
+			long[] group = new long[keys.size()];
+			for (int i = 0; i < group.length; i++)
+				group[i] = keys.get(i);
+			groups.add(group);
+		}
+		return groups;
+	}
+
+	private void addMethods(Map<Long, List<Long>> declarers, ClassNode node) {
+		for (MethodNode method : node.methods) {
+			// Constructors and static blocks are never renamed
+			if (method.name.charAt(0) == '<')
+				continue;
+			long key = symbols.memberKey(node.name, method.name, method.desc);
+			declarers.computeIfAbsent(SymbolTable.withoutOwner(key), k -> new ArrayList<>(1)).add(key);
+		}
+	}
+
+	/**
+	 * Methods that share a name.
+	 */
+	public static class Family {
+		private final Set<String> owners = new TreeSet<>();
+		private volatile String name;
+		private boolean library;
+
+		/**
+		 * @return {@code true} when a method of the family is declared outside the primary resource.
+		 */
+		public boolean isLibrary() {
+			return library;
+		}
+
+		/**
+		 * @return Names of the primary classes declaring a method of the family, sorted by name.
+		 */
+		public Collection<String> getOwners() {
+			return Collections.unmodifiableSet(owners);
+		}
+
+		/**
+		 * @return Name of the family, or {@code null} if no member has been named yet.
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Members of a family must be named from a single thread, in a fixed order.
+		 *
+		 * @param requested
+		 * 		Name to give the family.
+		 *
+		 * @return The requested name, or the name an earlier member gave the family.
+		 */
+		public String claimName(String requested) {
+			if (name == null)
+				name = requested;
+			return name;
+		}
+	}
+
+	/**
+	 * Disjoint sets of method keys, with path halving and union by size.
+	 */
+	private static class UnionFind {
+		private final Map<Long, Integer> indices = new HashMap<>();
+		private long[] keys = new long[64];
+		private int[] parents = new int[64];
+		private int[] sizes = new int[64];
+		private int count;
+
+		private int add(long key) {
+			Integer existing = indices.get(key);
+			if (existing != null)
+				return existing;
+			if (count == keys.length) {
+				keys = Arrays.copyOf(keys, count * 2);
+				parents = Arrays.copyOf(parents, count * 2);
+				sizes = Arrays.copyOf(sizes, count * 2);
+			}
+			keys[count] = key;
+			parents[count] = count;
+			sizes[count] = 1;
+			indices.put(key, count);
+			return count++;
+		}
+
+		private int find(int i) {
+			while (parents[i] != i) {
+				parents[i] = parents[parents[i]];
+				i = parents[i];
+			}
+			return i;
+		}
+
+		private void join(int a, int b) {
+			a = find(a);
+			b = find(b);
+			if (a == b)
+				return;
+			if (sizes[a] < sizes[b]) {
+				int tmp = a;
+				a = b;
+				b = tmp;
+			}
+			parents[b] = a;
+			sizes[a] += sizes[b];
+		}
+
+		private long getKey(int i) {
+			return keys[i];
+		}
+
+		private int size() {
+			return count;
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package me.coley.recaf.plugin.rename.namegen;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reverse index of generated names to the keys they are assigned to.
+ * Duplicate names are resolved with a counter per base name, so finding
+ * a free name does not need to scan existing mappings.
+ *
+ * @author Matt Coley
+ */
+public class NameIndex {
+	private final Map<String, String> owners = new ConcurrentHashMap<>();
+	private final Map<String, AtomicInteger> counters = new ConcurrentHashMap<>();
+
+	/**
+	 * Reserve a unique name for the given key.
+	 *
+	 * @param key
+	 * 		Key of the item being named.
+	 * @param name
+	 * 		Requested name.
+	 *
+	 * @return The requested name if it is free or already reserved by the key,
+	 * otherwise the next free {@link NameUtils#duplicateName(String, int) duplicate name}.
+	 */
+	public String claim(String key, String name) {
+		String owner = owners.putIfAbsent(name, key);
+		if (owner == null || owner.equals(key))
+			return name;
+		AtomicInteger counter = counters.computeIfAbsent(name, n -> new AtomicInteger(1));
+		while (true) {
+			// Duplicate names can still collide with names taken as they are, such as imported ones
+			String candidate = NameUtils.duplicateName(name, counter.getAndIncrement());
+			owner = owners.putIfAbsent(candidate, key);
+			if (owner == null || owner.equals(key))
+				return candidate;
+		}
+	}
+
+	/**
+	 * Release a name reserved by the given key.
+	 *
+	 * @param key
+	 * 		Key that reserved the name.
+	 * @param name
+	 * 		Name to release.
+	 */
+	public void release(String key, String name) {
+		owners.remove(name, key);
+	}
+
+	/**
+	 * @param name
+	 * 		Name to check.
+	 *
+	 * @return {@code true} when the name is reserved.
+	 */
+	public boolean isTaken(String name) {
+		return owners.containsKey(name);
+	}
+}
@@ -1,10 +1,18 @@
 package me.coley.recaf.plugin.rename.namegen;
 
+import me.coley.recaf.plugin.rename.mapping.MappingKeys;
+import me.coley.recaf.plugin.rename.metrics.RunMetrics;
+import me.coley.recaf.plugin.rename.namefilter.ScopeFilter;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.FieldNode;
 import org.objectweb.asm.tree.LocalVariableNode;
 import org.objectweb.asm.tree.MethodNode;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Outline for generating new names for items.
  *
@@ -19,13 +27,67 @@ public interface NameStrategy {
 	}
 
 	/**
+	 * Called before any names are created.
+	 * Implementations may split the work with parallel streams, which run on the fork-join pool of the caller.
+	 *
+	 * @param nodes
+	 * 		Classes that will be passed to the strategy, sorted by name.
+	 * @param scopeFilter
+	 * 		Filter that decides which classes and members are passed to the strategy.
+	 */
+	default void prepare(List<ClassNode> nodes, ScopeFilter scopeFilter) {
+	}
+
+	/**
+	 * Load names created by a prior session, so that they are re-used and not handed out to other items.
+	 *
+	 * @param mappings
+	 * 		Mappings, with keys as described in {@link MappingKeys}.
+	 */
+	default void seed(Map<String, String> mappings) {
+	}
+
+	/**
+	 * Called after all names of a run have been created, or the run was stopped.
+	 */
+	default void complete() {
+	}
+
+	/**
+	 * Add cache and collision counts of the current run to the given metrics.
+	 *
+	 * @param metrics
+	 * 		Metrics of the run.
+	 */
+	default void reportMetrics(RunMetrics metrics) {
+	}
+
+	/**
+	 * Propose a name for a class. Classes of one hierarchy wave are proposed in parallel, so the result may only
+	 * depend on the names claimed for classes of earlier waves, such as parents.
+	 *
 	 * @param node
 	 * 		Class to create a name for.
 	 *
-	 * @return Name for the class.
+	 * @return Name for the class, before it is made unique by {@link #claimClassName(ClassNode, String)}.
 	 */
 	String className(ClassNode node);
 
+	/**
+	 * Claim a proposed class name. Claims are made one at a time, in a fixed order, so which class gets a
+	 * de-duplicated name does not depend on thread timing.
+	 *
+	 * @param node
+	 * 		Class to claim a name for.
+	 * @param name
+	 * 		Name proposed by {@link #className(ClassNode)}.
+	 *
+	 * @return Unique name for the class.
+	 */
+	default String claimClassName(ClassNode node, String name) {
+		return name;
+	}
+
 	/**
 	 * @param owner
 	 * 		Class that defines the field.
@@ -46,6 +108,19 @@ public interface NameStrategy {
 	 */
 	String methodName(ClassNode owner, MethodNode method);
 
+	/**
+	 * @param owner
+	 * 		Class that defines the method.
+	 * @param method
+	 * 		Method to check.
+	 *
+	 * @return Classes whose declaration of the method, by the same name and descriptor, must be given the same name
+	 * as the method. Includes the owner itself.
+	 */
+	default Collection<String> methodOwners(ClassNode owner, MethodNode method) {
+		return Collections.singleton(owner.name);
+	}
+
 	/**
 	 * @param method
 	 * 		Method that defines the variable.
@@ -10,6 +10,24 @@ import java.util.Map;
  * @author Matt Coley
  */
 public class NameUtils {
+	/**
+	 * Put between a generated name and the counter that makes it unique. Generated names such as {@code method5}
+	 * end in digits, so appending the counter directly could produce another generated name, like {@code method51}.
+	 */
+	public static final char DUPLICATE_SEPARATOR = '_';
+
+	/**
+	 * @param name
+	 * 		Name that is already taken.
+	 * @param counter
+	 * 		Counter of the duplicate.
+	 *
+	 * @return Name for the duplicate.
+	 */
+	public static String duplicateName(String name, int counter) {
+		return name + DUPLICATE_SEPARATOR + counter;
+	}
+
 	/**
 	 * Capitalize the first letter of the name.
 	 *
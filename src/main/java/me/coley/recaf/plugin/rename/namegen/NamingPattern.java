@@ -2,6 +2,7 @@ package me.coley.recaf.plugin.rename.namegen;
 
 import me.coley.recaf.control.Controller;
 import me.coley.recaf.plugin.rename.AutoRename;
+import me.coley.recaf.plugin.rename.ClassRegistry;
 import me.coley.recaf.util.StringUtil;
 
 /**
@@ -32,18 +33,20 @@ public enum NamingPattern {
 	 * @param controller
 	 * 		The controller to pull classes from.
 	 * @param plugin Plugin instance to pull config from.
+	 * @param registry
+	 * 		Registry of parsed classes for the current run.
 	 *
 	 * @return A naming strategy to create appropriate names for items.
 	 */
-	public NameStrategy createStrategy(Controller controller, AutoRename plugin) {
+	public NameStrategy createStrategy(Controller controller, AutoRename plugin, ClassRegistry registry) {
 		switch (this) {
 			case INTELLIGENT:
 				double classificationThreshold = plugin.intelligentGuessThreshold / 100.0;
-				return new IntelligentStrategy(controller, classificationThreshold);
+				return new IntelligentStrategy(controller, registry, classificationThreshold);
 			case SOURCE_FILE:
-				return new SourceFileStrategy(controller);
+				return new SourceFileStrategy(controller, registry);
 			case SIMPLE:
-				return new SimpleStrategy(controller);
+				return new SimpleStrategy(controller, registry);
 			default:
 				throw new UnsupportedOperationException("Unsupported naming pattern: " + name());
 		}
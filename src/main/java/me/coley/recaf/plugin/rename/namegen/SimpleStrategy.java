@@ -1,41 +1,84 @@
 package me.coley.recaf.plugin.rename.namegen;
 
 import me.coley.recaf.control.Controller;
+import me.coley.recaf.plugin.rename.ClassRegistry;
+import me.coley.recaf.plugin.rename.namefilter.ScopeFilter;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.FieldNode;
 import org.objectweb.asm.tree.LocalVariableNode;
 import org.objectweb.asm.tree.MethodNode;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
 /**
  * A naming strategy that yields a basic pattern of incrementing numbers. IE, Class1, Class2, etc.
+ * <br>
+ * Index ranges are assigned to each class up front in {@link #prepare(List, ScopeFilter)},
+ * so classes can be named in any order across threads and still yield the same names.
  *
  * @author Matt Coley
  */
 public class SimpleStrategy extends AbstractNameStrategy {
-	private int classIndex = 1;
-	private int fieldIndex = 1;
-	private int methodIndex = 1;
+	private final Map<String, Integer> classIndices = new ConcurrentHashMap<>();
+	private final Map<String, AtomicInteger> fieldIndices = new ConcurrentHashMap<>();
+	private final Map<String, AtomicInteger> methodIndices = new ConcurrentHashMap<>();
+	// Used for items not given in the prepare call
+	private final AtomicInteger classIndex = new AtomicInteger(1);
+	private final AtomicInteger fieldIndex = new AtomicInteger(1);
+	private final AtomicInteger methodIndex = new AtomicInteger(1);
 
-	public SimpleStrategy(Controller controller) {
-		super(controller);
+	public SimpleStrategy(Controller controller, ClassRegistry registry) {
+		super(controller, registry);
 	}
 
 	@Override
-	public boolean allowMultiThread() {
-		// Because we are incrementing fields/methods in order we cannot have
-		// two classes incrementing the same index.
-		// This would cause both classes to appear to skip indices.
-		return false;
+	public void prepare(List<ClassNode> nodes, ScopeFilter scopeFilter) {
+		super.prepare(nodes, scopeFilter);
+		// Count the members of each class that will be named
+		int[] fieldCounts = new int[nodes.size()];
+		int[] methodCounts = new int[nodes.size()];
+		IntStream.range(0, nodes.size()).parallel().forEach(i -> {
+			ClassNode node = nodes.get(i);
+			for (FieldNode field : node.fields)
+				if (scopeFilter.matches(field.name))
+					fieldCounts[i]++;
+			for (MethodNode method : node.methods)
+				if (method.name.charAt(0) != '<' && scopeFilter.matches(method.name) && !isLibrary(node, method))
+					methodCounts[i]++;
+		});
+		// Each class starts where the prior class's range ends
+		int nextClass = classIndex.get();
+		int nextField = fieldIndex.get();
+		int nextMethod = methodIndex.get();
+		for (int i = 0; i < nodes.size(); i++) {
+			ClassNode node = nodes.get(i);
+			if (scopeFilter.matches(node.name))
+				classIndices.put(node.name, nextClass++);
+			fieldIndices.put(node.name, new AtomicInteger(nextField));
+			methodIndices.put(node.name, new AtomicInteger(nextMethod));
+			nextField += fieldCounts[i];
+			nextMethod += methodCounts[i];
+		}
+		classIndex.set(nextClass);
+		fieldIndex.set(nextField);
+		methodIndex.set(nextMethod);
 	}
 
 	@Override
 	public String className(ClassNode node) {
-		return "Class" + (classIndex++);
+		Integer index = classIndices.get(node.name);
+		return "Class" + (index != null ? index : classIndex.getAndIncrement());
 	}
 
 	@Override
 	public String fieldName(ClassNode owner, FieldNode field) {
-		return "field" + (fieldIndex++);
+		// Fields of a class are named in order by a single thread, so the next index in the
+		// class's range always belongs to this field.
+		return "field" + nextIndex(fieldIndices, fieldIndex, owner);
 	}
 
 	@Override
@@ -44,17 +87,22 @@ public class SimpleStrategy extends AbstractNameStrategy {
 		if (isLibrary(owner, method)) {
 			return null;
 		}
-		// Yield the name used by the rest of the method hierarchy
-		String parentMapped = getParentMethodMappedName(owner, method);
-		if (parentMapped != null) {
-			return parentMapped;
+		// Yield the name used by the rest of the method's family
+		String familyMapped = getFamilyMappedName(owner, method);
+		if (familyMapped != null) {
+			return familyMapped;
 		}
-		// Create a new name
-		return "method" + (methodIndex++);
+		// Create a new name, recorded so that child types can re-use it
+		return addMethodMapping(owner, method, "method" + nextIndex(methodIndices, methodIndex, owner));
 	}
 
 	@Override
 	public String variable(MethodNode method, LocalVariableNode local) {
 		return "local" + local.index;
 	}
+
+	private static int nextIndex(Map<String, AtomicInteger> indices, AtomicInteger fallback, ClassNode owner) {
+		AtomicInteger index = indices.get(owner.name);
+		return (index != null ? index : fallback).getAndIncrement();
+	}
 }
@@ -1,6 +1,7 @@
 package me.coley.recaf.plugin.rename.namegen;
 
 import me.coley.recaf.control.Controller;
+import me.coley.recaf.plugin.rename.ClassRegistry;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.FieldNode;
 import org.objectweb.asm.tree.InnerClassNode;
@@ -13,8 +14,8 @@ import org.objectweb.asm.tree.MethodNode;
  * @author Matt Coley
  */
 public class SourceFileStrategy extends AbstractNameStrategy {
-	protected SourceFileStrategy(Controller controller) {
-		super(controller);
+	protected SourceFileStrategy(Controller controller, ClassRegistry registry) {
+		super(controller, registry);
 	}
 
 	@Override
@@ -34,8 +35,7 @@ public class SourceFileStrategy extends AbstractNameStrategy {
 		int dotIndex = sourceFile.indexOf('.');
 		if (dotIndex == -1)
 			return null;
-		String baseName = sourceFile.substring(0, dotIndex);
-		return addClassMapping(node.name, baseName);
+		return sourceFile.substring(0, dotIndex);
 	}
 
 	@Override
@@ -0,0 +1,63 @@
+package me.coley.recaf.plugin.rename;
+
+import me.coley.recaf.control.Controller;
+import me.coley.recaf.plugin.rename.namegen.NamingPattern;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.tree.ClassNode;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Class names proposed in parallel must be claimed in a fixed order.
+ *
+ * @author Matt Coley
+ */
+public class ClassNamingOrderTest {
+	private static final int CLASS_COUNT = 30;
+
+	/**
+	 * Classes of one wave that are given the same name are suffixed in order of their original names,
+	 * regardless of which thread proposed the name first.
+	 */
+	@Test
+	public void testCollidingNamesClaimedInNameOrder() throws Exception {
+		Map<String, byte[]> classes = new HashMap<>();
+		for (int i = 0; i < CLASS_COUNT; i++) {
+			String id = String.format("%02d", i);
+			ClassWriter cw = new ClassWriter(0);
+			cw.visit(V1_8, ACC_PUBLIC, "test/C" + id, null, "java/lang/Object", null);
+			// All classes claim the same source file, fields keep their names with this naming pattern
+			cw.visitSource("Same.java", null);
+			cw.visitField(ACC_PUBLIC | ACC_STATIC, "id" + id, "I", null, null).visitEnd();
+			cw.visitEnd();
+			classes.put("test/C" + id, cw.toByteArray());
+		}
+		Controller controller = TestClasses.createController(classes);
+		AutoRename plugin = new AutoRename();
+		plugin.namingPattern = NamingPattern.SOURCE_FILE;
+		plugin.threadCount = 4;
+		plugin.getExecutionEngine().setParallelism(4);
+		Processor processor = new Processor(controller, plugin);
+		processor.analyze(classes.keySet());
+		assertTrue(processor.apply(), "Mappings were not applied");
+		plugin.getExecutionEngine().shutdown();
+		Map<String, byte[]> renamed = controller.getWorkspace().getPrimary().getClasses();
+		assertEquals(CLASS_COUNT, renamed.size());
+		assertEquals("id00", getFieldName(renamed.get("test/Same")));
+		for (int i = 1; i < CLASS_COUNT; i++)
+			assertEquals(String.format("id%02d", i), getFieldName(renamed.get("test/Same_" + i)));
+	}
+
+	private static String getFieldName(byte[] code) {
+		assertNotNull(code, "Class was not renamed in order");
+		ClassNode node = new ClassNode();
+		new ClassReader(code).accept(node, ClassReader.SKIP_CODE);
+		return node.fields.get(0).name;
+	}
+}
@@ -0,0 +1,50 @@
+package me.coley.recaf.plugin.rename;
+
+import me.coley.recaf.plugin.rename.mapping.MappingKeys;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static me.coley.recaf.plugin.rename.TestClasses.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Lookups of member mappings through the hierarchy of referenced owners.
+ *
+ * @author Matt Coley
+ */
+public class MappingApplierTest {
+	/**
+	 * A mapping keyed only on the implementation, as found in imported mappings, must also apply to the interface
+	 * method and to calls made through the interface.
+	 */
+	@Test
+	public void testChildMappingAppliesThroughParent() throws Exception {
+		Map<String, byte[]> classes = createClasses();
+		ClassRegistry registry = new ClassRegistry(createController(classes));
+		Map<String, String> mappings = Collections.singletonMap(
+				MappingKeys.method(IMPL, METHOD_NAME, METHOD_DESC), "renamed");
+		MappingApplier applier = new MappingApplier(mappings, registry, true, true, false);
+		Map<String, byte[]> mapped = new HashMap<>();
+		classes.forEach((name, code) -> mapped.put(name, applier.apply(code)));
+		assertEquals("renamed", getMethodName(mapped.get(ITF)));
+		assertEquals("renamed", getMethodName(mapped.get(IMPL)));
+		assertEquals(METHOD_VALUE, callThroughInterface(mapped, IMPL));
+	}
+
+	/**
+	 * Without hierarchy checks only the exact key is mapped.
+	 */
+	@Test
+	public void testNoHierarchyCheck() throws Exception {
+		Map<String, byte[]> classes = createClasses();
+		ClassRegistry registry = new ClassRegistry(createController(classes));
+		Map<String, String> mappings = Collections.singletonMap(
+				MappingKeys.method(IMPL, METHOD_NAME, METHOD_DESC), "renamed");
+		MappingApplier applier = new MappingApplier(mappings, registry, false, false, false);
+		assertEquals(METHOD_NAME, getMethodName(applier.apply(classes.get(ITF))));
+		assertEquals("renamed", getMethodName(applier.apply(classes.get(IMPL))));
+	}
+}
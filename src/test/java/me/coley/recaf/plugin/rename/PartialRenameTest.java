@@ -0,0 +1,44 @@
+package me.coley.recaf.plugin.rename;
+
+import me.coley.recaf.control.Controller;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static me.coley.recaf.plugin.rename.TestClasses.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Renames of a subset of a resource, where renamed classes are linked to classes outside the subset.
+ *
+ * @author Matt Coley
+ */
+public class PartialRenameTest {
+	/**
+	 * Renaming only the implementation of an interface must rename the interface method it overrides too,
+	 * along with calls made through the interface. Otherwise the call fails with an {@link AbstractMethodError}.
+	 */
+	@Test
+	public void testRenameImplementationOfInterface() throws Exception {
+		Controller controller = createController(createClasses());
+		AutoRename plugin = new AutoRename();
+		Processor processor = new Processor(controller, plugin);
+		processor.analyze(Collections.singleton(IMPL));
+		assertTrue(processor.apply(), "Mappings were not applied");
+		plugin.getExecutionEngine().shutdown();
+		Map<String, byte[]> renamed = controller.getWorkspace().getPrimary().getClasses();
+		// Only the implementation is renamed, the interface and caller keep their names
+		assertFalse(renamed.containsKey(IMPL), "Implementation was not renamed");
+		assertTrue(renamed.containsKey(ITF));
+		assertTrue(renamed.containsKey(CALLER));
+		String implName = renamed.keySet().stream()
+				.filter(name -> !name.equals(ITF) && !name.equals(CALLER))
+				.findFirst().orElseThrow(IllegalStateException::new);
+		String itfMethod = getMethodName(renamed.get(ITF));
+		assertNotEquals(METHOD_NAME, itfMethod, "Interface method was not renamed with its implementation");
+		assertEquals(itfMethod, getMethodName(renamed.get(implName)));
+		// The call through the interface must still reach the implementation
+		assertEquals(METHOD_VALUE, callThroughInterface(renamed, implName));
+	}
+}
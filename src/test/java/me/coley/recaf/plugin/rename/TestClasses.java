@@ -0,0 +1,167 @@
+package me.coley.recaf.plugin.rename;
+
+import me.coley.recaf.control.Controller;
+import me.coley.recaf.control.headless.HeadlessController;
+import me.coley.recaf.workspace.JarResource;
+import me.coley.recaf.workspace.Workspace;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Small generated class hierarchy for tests: an interface, an implementation, and a class calling the
+ * implementation through the interface.
+ *
+ * @author Matt Coley
+ */
+public class TestClasses {
+	public static final String ITF = "test/Named";
+	public static final String IMPL = "test/NamedImpl";
+	public static final String CALLER = "test/Caller";
+	public static final String METHOD_NAME = "value";
+	public static final String METHOD_DESC = "()I";
+	public static final int METHOD_VALUE = 42;
+
+	/**
+	 * @return Bytecode of the interface, implementation and caller, keyed by internal name.
+	 */
+	public static Map<String, byte[]> createClasses() {
+		Map<String, byte[]> classes = new HashMap<>();
+		classes.put(ITF, createInterface());
+		classes.put(IMPL, createImplementation());
+		classes.put(CALLER, createCaller());
+		return classes;
+	}
+
+	/**
+	 * @param classes
+	 * 		Classes to put in the primary resource.
+	 *
+	 * @return Headless controller with a workspace of the classes.
+	 *
+	 * @throws IOException
+	 * 		When the classes cannot be written to a temporary jar.
+	 */
+	public static Controller createController(Map<String, byte[]> classes) throws IOException {
+		Path jar = Files.createTempFile("auto-renamer-test", ".jar");
+		jar.toFile().deleteOnExit();
+		try (OutputStream os = Files.newOutputStream(jar); JarOutputStream jos = new JarOutputStream(os)) {
+			for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+				jos.putNextEntry(new JarEntry(entry.getKey() + ".class"));
+				jos.write(entry.getValue());
+				jos.closeEntry();
+			}
+		}
+		Controller controller = new HeadlessController(null, null);
+		controller.setWorkspace(new Workspace(new JarResource(jar.toFile())));
+		return controller;
+	}
+
+	/**
+	 * @param classes
+	 * 		Classes to load, keyed by internal name.
+	 * @param implName
+	 * 		Current name of the implementation.
+	 *
+	 * @return Value returned by calling the implementation through the interface.
+	 *
+	 * @throws Exception
+	 * 		When the classes cannot be loaded, or the call fails.
+	 */
+	public static Object callThroughInterface(Map<String, byte[]> classes, String implName) throws Exception {
+		ClassLoader loader = new BytesClassLoader(classes);
+		Object impl = loader.loadClass(implName.replace('/', '.')).getDeclaredConstructor().newInstance();
+		Class<?> itf = loader.loadClass(ITF.replace('/', '.'));
+		return loader.loadClass(CALLER.replace('/', '.')).getMethod("call", itf).invoke(null, impl);
+	}
+
+	/**
+	 * @param code
+	 * 		Bytecode of the interface or implementation.
+	 *
+	 * @return Current name of the method of the interface.
+	 */
+	public static String getMethodName(byte[] code) {
+		ClassNode node = new ClassNode();
+		new ClassReader(code).accept(node, ClassReader.SKIP_CODE);
+		for (MethodNode method : node.methods)
+			if (method.desc.equals(METHOD_DESC))
+				return method.name;
+		throw new IllegalStateException("No method with descriptor " + METHOD_DESC + " in " + node.name);
+	}
+
+	private static byte[] createInterface() {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC | ACC_INTERFACE | ACC_ABSTRACT, ITF, null, "java/lang/Object", null);
+		cw.visitMethod(ACC_PUBLIC | ACC_ABSTRACT, METHOD_NAME, METHOD_DESC, null, null).visitEnd();
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static byte[] createImplementation() {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC, IMPL, null, "java/lang/Object", new String[]{ITF});
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		mv = cw.visitMethod(ACC_PUBLIC, METHOD_NAME, METHOD_DESC, null, null);
+		mv.visitCode();
+		mv.visitIntInsn(BIPUSH, METHOD_VALUE);
+		mv.visitInsn(IRETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static byte[] createCaller() {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC, CALLER, null, "java/lang/Object", null);
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_STATIC, "call", "(L" + ITF + ";)I", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKEINTERFACE, ITF, METHOD_NAME, METHOD_DESC, true);
+		mv.visitInsn(IRETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	/**
+	 * Loads classes from the given bytecode, before asking its parent.
+	 */
+	private static class BytesClassLoader extends ClassLoader {
+		private final Map<String, byte[]> classes;
+
+		private BytesClassLoader(Map<String, byte[]> classes) {
+			super(TestClasses.class.getClassLoader());
+			this.classes = classes;
+		}
+
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException {
+			byte[] code = classes.get(name.replace('.', '/'));
+			if (code == null)
+				throw new ClassNotFoundException(name);
+			return defineClass(name, code, 0, code.length);
+		}
+	}
+}
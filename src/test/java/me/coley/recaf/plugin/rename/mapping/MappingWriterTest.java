@@ -0,0 +1,68 @@
+package me.coley.recaf.plugin.rename.mapping;
+
+import me.coley.recaf.plugin.rename.GroupedMappings;
+import me.coley.recaf.plugin.rename.SymbolTable;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mappings written class by class must read back as the same mappings.
+ *
+ * @author Matt Coley
+ */
+public class MappingWriterTest {
+	@Test
+	public void testProguardRoundTrip() throws Exception {
+		testRoundTrip(MappingFormat.PROGUARD);
+	}
+
+	@Test
+	public void testTinyRoundTrip() throws Exception {
+		testRoundTrip(MappingFormat.TINY_V2);
+	}
+
+	@Test
+	public void testSrgRoundTrip() throws Exception {
+		testRoundTrip(MappingFormat.SRG);
+	}
+
+	private static void testRoundTrip(MappingFormat format) throws Exception {
+		Map<String, String> classes = new HashMap<>();
+		Map<Long, String> fields = new HashMap<>();
+		Map<Long, String> methods = new HashMap<>();
+		Map<String, String> expected = new HashMap<>();
+		SymbolTable symbols = new SymbolTable();
+		classes.put("a/B", "a/Renamed");
+		classes.put("c/D", "c/Other");
+		// Inner class names sort between the outer class and its members, so they must still be grouped apart
+		fields.put(symbols.memberKey("a/B$1", "x", "I"), "field1");
+		fields.put(symbols.memberKey("a/B", "y", "La/B;"), "field2");
+		methods.put(symbols.memberKey("a/B", "run", "(La/B;)V"), "method1");
+		methods.put(symbols.memberKey("c/D", "get", "()I"), "method2");
+		methods.put(symbols.memberKey("a/B$1", "get", "()I"), "method2");
+		expected.putAll(classes);
+		fields.forEach((key, mapped) -> expected.put(symbols.toFieldKey(key), mapped));
+		methods.forEach((key, mapped) -> expected.put(symbols.toMethodKey(key), mapped));
+		Path path = Files.createTempFile("mappings", "." + format.getExtension());
+		try {
+			int written = MappingWriter.write(path, format, new GroupedMappings(symbols, classes, fields, methods));
+			assertEquals(expected.size(), written);
+			Map<String, String> read = new HashMap<>();
+			MappingReader.read(path, format, (owner, name) -> {
+				for (Long key : fields.keySet())
+					if (symbols.getOwner(key).equals(owner) && symbols.getName(key).equals(name))
+						return symbols.getDesc(key);
+				return null;
+			}, read::put);
+			assertEquals(expected, read);
+		} finally {
+			Files.delete(path);
+		}
+	}
+}
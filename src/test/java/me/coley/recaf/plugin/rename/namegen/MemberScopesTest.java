@@ -0,0 +1,37 @@
+package me.coley.recaf.plugin.rename.namegen;
+
+import me.coley.recaf.plugin.rename.ClassRegistry;
+import me.coley.recaf.plugin.rename.TestClasses;
+import org.junit.jupiter.api.Test;
+
+import static me.coley.recaf.plugin.rename.TestClasses.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Names claimed for members of related classes.
+ *
+ * @author Matt Coley
+ */
+public class MemberScopesTest {
+	/**
+	 * A taken name gets a separated counter, so it cannot turn into another generated name that ends in digits.
+	 */
+	@Test
+	public void testDuplicateDoesNotExtendIndex() throws Exception {
+		MemberScopes scopes = new MemberScopes(new ClassRegistry(TestClasses.createController(createClasses())));
+		assertEquals("method5", scopes.claimMethod(IMPL, "method5", METHOD_DESC));
+		assertEquals("method5_1", scopes.claimMethod(IMPL, "method5", METHOD_DESC));
+		assertEquals("method51", scopes.claimMethod(IMPL, "method51", METHOD_DESC));
+	}
+
+	/**
+	 * Names the class already declares are taken.
+	 */
+	@Test
+	public void testDeclaredNameTaken() throws Exception {
+		MemberScopes scopes = new MemberScopes(new ClassRegistry(TestClasses.createController(createClasses())));
+		assertEquals(METHOD_NAME + "_1", scopes.claimMethod(IMPL, METHOD_NAME, METHOD_DESC));
+		// Other parameter types do not conflict
+		assertEquals(METHOD_NAME, scopes.claimMethod(IMPL, METHOD_NAME, "(I)I"));
+	}
+}